@@ -0,0 +1,144 @@
+package com.son.oop.app;
+
+import com.son.oop.basics.Constants.AccountType;
+import com.son.oop.basics.Constants.BalanceMode;
+import com.son.oop.bank.domain.Account;
+import com.son.oop.bank.service.Bank;
+import com.son.oop.bank.service.TransferRequest;
+import com.son.oop.bank.service.TransferResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for the account balance modes.
+ *
+ * 1. Many threads deposit into ONE account: SIMPLE mode loses updates, CONCURRENT
+ *    mode ends at exactly threads * deposits.
+ * 2. Many threads transfer at random between CONCURRENT accounts, from 2 accounts
+ *    (every transfer contends) to many: prints throughput, and checks that the total
+ *    is conserved and no balance went negative.
+ * 3. The same number of transfers as one Bank.transferAll batch, within groups of 4
+ *    accounts, against a loop of Bank.transfer on an identical set of accounts.
+ *
+ * Run: java com.son.oop.app.TransferBenchmark [threads] [opsPerThread]
+ */
+public class TransferBenchmark {
+    private static final BigDecimal ONE = BigDecimal.ONE;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        System.out.printf("threads=%d, ops/thread=%d%n", threads, ops);
+
+        for (BalanceMode mode : BalanceMode.values()) {
+            var account = new Account("HOT", AccountType.CHECKING, mode);
+            long nanos = run(threads, () -> {
+                for (int i = 0; i < ops; i++) account.deposit(ONE);
+            });
+            System.out.printf("deposits  %-10s expected=%d actual=%s  %s%n",
+                    mode, (long) threads * ops, account.getBalance().stripTrailingZeros().toPlainString(),
+                    rate((long) threads * ops, nanos));
+        }
+
+        var bank = new Bank();
+        for (int n : new int[] {2, 16, 1024}) {
+            var accounts = new Account[n];
+            for (int i = 0; i < n; i++) {
+                accounts[i] = new Account("C%05d".formatted(i), AccountType.CHECKING, BalanceMode.CONCURRENT);
+                accounts[i].deposit(new BigDecimal(1000));
+            }
+            var rejected = new AtomicLong();
+            long nanos = run(threads, () -> {
+                var random = ThreadLocalRandom.current();
+                long insufficient = 0;
+                for (int i = 0; i < ops; i++) {
+                    int a = random.nextInt(n);
+                    int b = random.nextInt(n - 1);
+                    if (b >= a) b++;
+                    try {
+                        bank.transfer(accounts[a], accounts[b], BigDecimal.valueOf(1 + random.nextInt(100)));
+                    } catch (IllegalArgumentException e) {
+                        insufficient++;
+                    }
+                }
+                rejected.addAndGet(insufficient);
+            });
+            BigDecimal total = BigDecimal.ZERO;
+            boolean negative = false;
+            for (Account account : accounts) {
+                total = total.add(account.getBalance());
+                negative |= account.getBalance().signum() < 0;
+            }
+            System.out.printf("transfers accounts=%-5d total=%s (expected %d) negative=%b rejected=%d  %s%n",
+                    n, total.stripTrailingZeros().toPlainString(), n * 1000L, negative, rejected.get(),
+                    rate((long) threads * ops, nanos));
+        }
+
+        int groups = 4096;
+        var batchAccounts = new Account[groups * 4];
+        var loopAccounts = new Account[groups * 4];
+        for (int i = 0; i < batchAccounts.length; i++) {
+            batchAccounts[i] = new Account("G%05d".formatted(i), AccountType.CHECKING, BalanceMode.CONCURRENT);
+            loopAccounts[i] = new Account("G%05d".formatted(i), AccountType.CHECKING, BalanceMode.CONCURRENT);
+            batchAccounts[i].deposit(new BigDecimal(1000));
+            loopAccounts[i].deposit(new BigDecimal(1000));
+        }
+        var random = ThreadLocalRandom.current();
+        var batch = new ArrayList<TransferRequest>();
+        var loop = new ArrayList<TransferRequest>();
+        for (long i = 0; i < (long) threads * ops; i++) {
+            int a = random.nextInt(batchAccounts.length);
+            int b = (a & ~3) | ((a + 1 + random.nextInt(3)) & 3);
+            var amount = BigDecimal.valueOf(1 + random.nextInt(100));
+            batch.add(new TransferRequest(batchAccounts[a], batchAccounts[b], amount));
+            loop.add(new TransferRequest(loopAccounts[a], loopAccounts[b], amount));
+        }
+        long t0 = System.nanoTime();
+        var results = bank.transferAll(batch);
+        long batchNanos = System.nanoTime() - t0;
+        long completed = results.stream().filter(TransferResult::isCompleted).count();
+        t0 = System.nanoTime();
+        long loopCompleted = 0;
+        for (TransferRequest r : loop) {
+            try {
+                bank.transfer(r.from(), r.to(), r.amount());
+                loopCompleted++;
+            } catch (IllegalArgumentException e) {
+                // insufficient funds: counted by the difference
+            }
+        }
+        long loopNanos = System.nanoTime() - t0;
+        System.out.printf("batch     transferAll completed=%d  %s | transfer loop completed=%d  %s%n",
+                completed, rate(batch.size(), batchNanos), loopCompleted, rate(loop.size(), loopNanos));
+    }
+
+    /** Runs the task on 'threads' threads started together; returns the elapsed nanos. */
+    private static long run(int threads, Runnable task) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        var workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            workers[i].start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        return System.nanoTime() - t0;
+    }
+
+    private static String rate(long ops, long nanos) {
+        return "%,.0f ops/s (%d ms)".formatted(ops * 1e9 / nanos, nanos / 1_000_000);
+    }
+}
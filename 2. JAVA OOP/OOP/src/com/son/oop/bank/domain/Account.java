@@ -2,46 +2,171 @@ package com.son.oop.bank.domain;
 
 import com.son.oop.basics.Constants.AccountType;
 import com.son.oop.basics.Constants.AccountStatus;
+import com.son.oop.basics.Constants.BalanceMode;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.math.BigDecimal;
 
+/**
+ * A bank account. The balance mode is chosen at construction:
+ * - SIMPLE (default): balance is a BigDecimal field; not thread-safe.
+ * - CONCURRENT: balance is a long count of minor units (1/100, see MINOR_UNIT_SCALE)
+ *   in an AtomicLong. deposit is an atomic add and withdraw a compare-and-set loop that
+ *   checks funds against the value it replaces, so concurrent withdrawals can never
+ *   overdraw the account and no update is lost. No lock is taken.
+ *
+ * status is volatile, and freeze/close synchronize on the account, so a Bank transfer
+ * holding the account's lock sees a status that cannot change under it.
+ *
+ * An account created with an AccountLedger records every deposit, withdraw, freeze and
+ * close there (see AccountLedger for what that changes).
+ */
 public class Account {
+     /** Decimal places kept by a CONCURRENT account (minor units = amount * 10^scale). */
+     public static final int MINOR_UNIT_SCALE = 2;
+     private static final long MINOR_UNITS_PER_UNIT = 100; // 10^MINOR_UNIT_SCALE
+
      private final String id;
      private final AccountType type;
-     private AccountStatus status = AccountStatus.ACTIVE;
-     private BigDecimal balance = BigDecimal.ZERO;
+     private final BalanceMode mode;
+     private volatile AccountStatus status = AccountStatus.ACTIVE;
+     private BigDecimal balance = BigDecimal.ZERO;     // SIMPLE mode
+     private final AtomicLong minorUnits;              // CONCURRENT mode, null otherwise
      private BigDecimal minBalance = new BigDecimal("100000");
+     private final AccountLedger.Stream history;        // null without a ledger
 
      public Account(String id, AccountType type) {
+         this(id, type, BalanceMode.SIMPLE);
+     }
+
+     public Account(String id, AccountType type, BalanceMode mode) {
+         this(id, type, mode, (AccountLedger) null);
+     }
+
+     /** Records this account's events in ledger (none if null); ids must be unique per ledger. */
+     public Account(String id, AccountType type, BalanceMode mode, AccountLedger ledger) {
          if(id == null || id.isBlank()) throw new IllegalArgumentException("id is blank");
          this.id = id;
          this.type = Objects.requireNonNull(type);
+         this.mode = Objects.requireNonNull(mode);
+         this.minorUnits = mode == BalanceMode.CONCURRENT ? new AtomicLong() : null;
+         this.history = ledger == null ? null : ledger.open(this);
+     }
+
+     /** A rebuilt account (AccountLedger.rebuild): given balance in minor units and status, no ledger. */
+     Account(String id, AccountType type, BalanceMode mode, long balanceUnits, AccountStatus status) {
+         this(id, type, mode, (AccountLedger) null);
+         setBalanceUnits(balanceUnits);
+         this.status = Objects.requireNonNull(status);
      }
 
      public void deposit(BigDecimal amount) {
          // check active
          requireActive();
          requirePositive(amount);
+         if(history != null) {
+             record(LedgerEvent.Type.DEPOSIT, amount);
+             return;
+         }
+         if(minorUnits != null) {
+             long units = toMinorUnits(amount);
+             try {
+                 minorUnits.accumulateAndGet(units, Math::addExact);
+             } catch (ArithmeticException e) {
+                 throw balanceOverflow(); // the balance is unchanged
+             }
+             return;
+         }
          balance = balance.add(amount);
      }
 
     public void withdraw(BigDecimal amount) {
          requireActive();
          requirePositive(amount);
+         if(history != null) {
+             record(LedgerEvent.Type.WITHDRAW, amount);
+             return;
+         }
+         if(minorUnits != null) {
+             long units = toMinorUnits(amount);
+             while(true) {
+                 long current = minorUnits.get();
+                 if(current < units) throw insufficientFunds();
+                 if(minorUnits.compareAndSet(current, current - units)) return;
+             }
+         }
          if(balance.subtract(amount).compareTo(BigDecimal.ZERO) < 0) {
-             throw new IllegalArgumentException("Insufficient funds after maintaining min balance" + minBalance);
+             throw insufficientFunds();
          }
          balance = balance.subtract(amount);
     }
 
-    public void freeze() {
+    public synchronized void freeze() {
+         if(history != null) {
+             record(AccountStatus.FROZEN, LedgerEvent.Type.FREEZE);
+             return;
+         }
          status = AccountStatus.FROZEN;
     }
 
-    public void close() {
+    public synchronized void close() {
+        if(history != null) {
+            record(AccountStatus.CLOSED, LedgerEvent.Type.CLOSE);
+            return;
+        }
         status = AccountStatus.CLOSED;
     }
 
+    /** Applies a deposit/withdraw and appends it to the ledger, as one step. */
+    private void record(LedgerEvent.Type eventType, BigDecimal amount) {
+        long units = toMinorUnits(amount);
+        synchronized (history) {
+            requireActive(); // a freeze/close may have been recorded since the first check
+            long current = balanceUnits();
+            if(eventType == LedgerEvent.Type.DEPOSIT && current > Long.MAX_VALUE - units) throw balanceOverflow();
+            long next = eventType == LedgerEvent.Type.DEPOSIT ? current + units : current - units;
+            if(next < 0) throw insufficientFunds();
+            setBalanceUnits(next);
+            history.append(eventType, units, next, status);
+        }
+    }
+
+    private void record(AccountStatus newStatus, LedgerEvent.Type eventType) {
+        synchronized (history) {
+            status = newStatus;
+            history.append(eventType, 0, balanceUnits(), newStatus);
+        }
+    }
+
+    private long balanceUnits() {
+        return minorUnits != null ? minorUnits.get() : toMinorUnits(balance);
+    }
+
+    private void setBalanceUnits(long units) {
+        if(minorUnits != null) minorUnits.set(units);
+        else balance = BigDecimal.valueOf(units, MINOR_UNIT_SCALE);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public AccountType getType() {
+        return type;
+    }
+
+    public BalanceMode getMode() {
+        return mode;
+    }
+
+    public AccountStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getBalance() {
+        return minorUnits != null ? BigDecimal.valueOf(minorUnits.get(), MINOR_UNIT_SCALE) : balance;
+    }
+
     private void requireActive() {
          if(status != AccountStatus.ACTIVE) throw new IllegalStateException("Account is not active" + status);
     }
@@ -50,10 +175,39 @@ public class Account {
          if(amount == null || amount.signum() <= 0) throw new IllegalArgumentException("amount > 0 required");
     }
 
+    /** Message of the IllegalArgumentException thrown by withdraw when funds are short. */
+    public String insufficientFundsMessage() {
+         return "Insufficient funds after maintaining min balance" + minBalance;
+    }
+
+    private IllegalArgumentException insufficientFunds() {
+         return new IllegalArgumentException(insufficientFundsMessage());
+    }
+
+    private static IllegalArgumentException balanceOverflow() {
+         return new IllegalArgumentException("balance overflow");
+    }
+
+    /**
+     * amount as minor units (amount * 10^MINOR_UNIT_SCALE). Throws IllegalArgumentException
+     * if it has more decimal places or does not fit in a long.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+         try {
+             if(amount.scale() == 0 && amount.precision() <= 18) {
+                 return Math.multiplyExact(amount.longValue(), MINOR_UNITS_PER_UNIT); // whole amounts: no BigDecimal math
+             }
+             return amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+         } catch (ArithmeticException e) {
+             throw new IllegalArgumentException("amount must have at most " + MINOR_UNIT_SCALE
+                     + " decimal places and fit in a long: " + amount);
+         }
+    }
+
     @Override
     public String toString() {
          return "%s{id='%s', type='%s', balance='%s', minBalance='%s'}"
-                 .formatted(getClass().getSimpleName(), id, type, balance, minBalance);
+                 .formatted(getClass().getSimpleName(), id, type, getBalance(), minBalance);
     }
 
 }
@@ -0,0 +1,261 @@
+package com.son.oop.bank.domain;
+
+import com.son.oop.basics.Constants.AccountStatus;
+import com.son.oop.basics.Constants.AccountType;
+import com.son.oop.basics.Constants.BalanceMode;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An append-only ledger of account events (deposit, withdraw, freeze, close), so an
+ * account's history can be audited, its balance asked for at any past instant, and its
+ * state rebuilt from the events.
+ *
+ * Usage:
+ *   var ledger = new AccountLedger();
+ *   var a = new Account("A001", AccountType.SAVINGS, BalanceMode.CONCURRENT, ledger);
+ *   a.deposit(...);                                  // recorded
+ *   ledger.balanceAt("A001", Instant.parse("..."));  // balance at that time
+ *   ledger.rebuild("A001");                          // state replayed from the events
+ *
+ * Storage, per account:
+ * - Events are fixed-size binary records of RECORD_BYTES bytes in byte[] CHUNKS of
+ *   CHUNK_EVENTS events: kind (event type + status after), time in epoch millis,
+ *   amount and balance after, both in minor units. No object per event.
+ * - Every chunk starts with a SNAPSHOT: the balance and status before its first event.
+ *   rebuild() starts from the last snapshot and replays only the last chunk's events,
+ *   checking each stored balance on the way.
+ * - Times come from the Clock and never go backwards within an account, so the
+ *   balance at an instant is two binary searches (chunk by first time, then event):
+ *   O(log n).
+ *
+ * Caveats:
+ * - In memory only, and one ledger per account id (a second account with the same id
+ *   is rejected).
+ * - While an account has a ledger, its updates are serialized on its ledger entry so
+ *   the events keep the order the balance saw (CONCURRENT accounts stay thread-safe,
+ *   but no longer lock-free), and amounts must be exact in minor units.
+ * - Bank.transferAll moves net amounts, so it records one event per account, not one
+ *   per transfer.
+ */
+public class AccountLedger {
+    /** Events per chunk, i.e. how often a balance snapshot is taken. */
+    public static final int CHUNK_EVENTS = 256;
+    /** kind (1 byte) | time (8) | amount (8) | balance after (8). */
+    static final int RECORD_BYTES = 25;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final LedgerEvent.Type[] TYPES = LedgerEvent.Type.values();
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Stream> streams = new ConcurrentHashMap<>();
+
+    public AccountLedger() {
+        this(Clock.systemUTC());
+    }
+
+    public AccountLedger(Clock clock) {
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /** Starts the history of a new account (called by its constructor). */
+    Stream open(Account account) {
+        var stream = new Stream(account);
+        if(streams.putIfAbsent(account.getId(), stream) != null) {
+            throw new IllegalArgumentException("duplicate account id: " + account.getId());
+        }
+        return stream;
+    }
+
+    /** Number of events recorded for the account. */
+    public int eventCount(String accountId) {
+        var s = stream(accountId);
+        synchronized (s) {
+            return s.size;
+        }
+    }
+
+    /** The account's events, oldest first (decoded copies). */
+    public List<LedgerEvent> events(String accountId) {
+        var s = stream(accountId);
+        synchronized (s) {
+            var events = new ArrayList<LedgerEvent>(s.size);
+            for(Chunk c : s.chunks) {
+                for(int r = 0; r < c.count; r++) events.add(c.decode(s.id, r));
+            }
+            return events;
+        }
+    }
+
+    /** Balance right after the last event at or before 'at' (zero before the first event). O(log n). */
+    public BigDecimal balanceAt(String accountId, Instant at) {
+        var s = stream(accountId);
+        long t = at.toEpochMilli();
+        synchronized (s) {
+            int ci = s.chunkAt(t);
+            long units = ci < 0 ? 0 : s.chunks.get(ci).balanceAfter(s.chunks.get(ci).lastAtOrBefore(t));
+            return BigDecimal.valueOf(units, Account.MINOR_UNIT_SCALE);
+        }
+    }
+
+    /** Status right after the last event at or before 'at' (ACTIVE before the first event). O(log n). */
+    public AccountStatus statusAt(String accountId, Instant at) {
+        var s = stream(accountId);
+        long t = at.toEpochMilli();
+        synchronized (s) {
+            int ci = s.chunkAt(t);
+            return ci < 0 ? AccountStatus.ACTIVE : s.chunks.get(ci).statusAfter(s.chunks.get(ci).lastAtOrBefore(t));
+        }
+    }
+
+    /**
+     * A new account (without a ledger) in the state the events lead to: the last snapshot
+     * plus the events after it. Throws IllegalStateException if a replayed event does not
+     * reproduce the balance or status stored with it.
+     */
+    public Account rebuild(String accountId) {
+        var s = stream(accountId);
+        synchronized (s) {
+            long balance = 0;
+            AccountStatus status = AccountStatus.ACTIVE;
+            if(!s.chunks.isEmpty()) {
+                Chunk last = s.chunks.get(s.chunks.size() - 1);
+                balance = last.startBalance;
+                status = last.startStatus;
+                for(int r = 0; r < last.count; r++) {
+                    long amount = last.amount(r);
+                    switch (last.type(r)) {
+                        case DEPOSIT -> balance = Math.addExact(balance, amount);
+                        case WITHDRAW -> balance -= amount;
+                        case FREEZE -> status = AccountStatus.FROZEN;
+                        case CLOSE -> status = AccountStatus.CLOSED;
+                    }
+                    if(balance < 0 || balance != last.balanceAfter(r) || status != last.statusAfter(r)) {
+                        throw new IllegalStateException("ledger of account " + s.id + " is inconsistent at event "
+                                + (s.size - last.count + r));
+                    }
+                }
+            }
+            return new Account(s.id, s.type, s.mode, balance, status);
+        }
+    }
+
+    private Stream stream(String accountId) {
+        var s = streams.get(accountId);
+        if(s == null) throw new IllegalArgumentException("unknown account: " + accountId);
+        return s;
+    }
+
+    /**
+     * The history of one account. Account appends while holding this object's monitor,
+     * around the balance update, and the queries above read under it.
+     */
+    final class Stream {
+        final String id;
+        final AccountType type;
+        final BalanceMode mode;
+        final List<Chunk> chunks = new ArrayList<>();
+        int size;
+        long lastTime = Long.MIN_VALUE;
+        long balance;
+        AccountStatus status = AccountStatus.ACTIVE;
+
+        private Stream(Account account) {
+            this.id = account.getId();
+            this.type = account.getType();
+            this.mode = account.getMode();
+        }
+
+        /** Records an event that has just been applied; the caller holds this monitor. */
+        void append(LedgerEvent.Type eventType, long amount, long balanceAfter, AccountStatus statusAfter) {
+            long time = Math.max(clock.millis(), lastTime);
+            Chunk c = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if(c == null || c.count == CHUNK_EVENTS) {
+                c = new Chunk(balance, status, time);
+                chunks.add(c);
+            }
+            c.add(eventType, time, amount, balanceAfter, statusAfter);
+            lastTime = time;
+            balance = balanceAfter;
+            status = statusAfter;
+            size++;
+        }
+
+        /** Index of the last chunk whose first event is at or before t, or -1. */
+        int chunkAt(long t) {
+            int lo = 0, hi = chunks.size() - 1, found = -1;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if(chunks.get(mid).firstTime <= t) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    /** Up to CHUNK_EVENTS records after a snapshot; the byte[] grows as events arrive. */
+    static final class Chunk {
+        final long startBalance;
+        final AccountStatus startStatus;
+        final long firstTime;
+        byte[] data = new byte[8 * RECORD_BYTES];
+        int count;
+
+        Chunk(long startBalance, AccountStatus startStatus, long firstTime) {
+            this.startBalance = startBalance;
+            this.startStatus = startStatus;
+            this.firstTime = firstTime;
+        }
+
+        void add(LedgerEvent.Type eventType, long time, long amount, long balanceAfter, AccountStatus statusAfter) {
+            int off = count * RECORD_BYTES;
+            if(off == data.length) data = Arrays.copyOf(data, Math.min(data.length * 2, CHUNK_EVENTS * RECORD_BYTES));
+            data[off] = (byte) (eventType.ordinal() | statusAfter.ordinal() << 4);
+            LONG.set(data, off + 1, time);
+            LONG.set(data, off + 9, amount);
+            LONG.set(data, off + 17, balanceAfter);
+            count++;
+        }
+
+        LedgerEvent.Type type(int r) { return TYPES[data[r * RECORD_BYTES] & 0x0F]; }
+
+        AccountStatus statusAfter(int r) { return STATUSES[data[r * RECORD_BYTES] >>> 4 & 0x0F]; }
+
+        long time(int r) { return (long) LONG.get(data, r * RECORD_BYTES + 1); }
+
+        long amount(int r) { return (long) LONG.get(data, r * RECORD_BYTES + 9); }
+
+        long balanceAfter(int r) { return (long) LONG.get(data, r * RECORD_BYTES + 17); }
+
+        /** Index of the last record at or before t; the chunk's first record must be. */
+        int lastAtOrBefore(long t) {
+            int lo = 0, hi = count - 1;
+            while(lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if(time(mid) <= t) lo = mid;
+                else hi = mid - 1;
+            }
+            return lo;
+        }
+
+        LedgerEvent decode(String accountId, int r) {
+            return new LedgerEvent(accountId, type(r), Instant.ofEpochMilli(time(r)),
+                    BigDecimal.valueOf(amount(r), Account.MINOR_UNIT_SCALE),
+                    BigDecimal.valueOf(balanceAfter(r), Account.MINOR_UNIT_SCALE), statusAfter(r));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.son.oop.bank.domain;
+
+import com.son.oop.basics.Constants.AccountStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One entry of an AccountLedger, decoded for reading. amount is ZERO for FREEZE and
+ * CLOSE; balanceAfter and statusAfter are the account's state right after the event.
+ */
+public record LedgerEvent(String accountId, Type type, Instant time, BigDecimal amount,
+                          BigDecimal balanceAfter, AccountStatus statusAfter) {
+
+    public enum Type { DEPOSIT, WITHDRAW, FREEZE, CLOSE }
+}
@@ -1,13 +1,411 @@
 package com.son.oop.bank.service;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import com.son.oop.basics.Constants.AccountStatus;
 import com.son.oop.bank.domain.Account;
 
 public class Bank {
+    /** Taken first when two distinct accounts tie on both id and identity hash. */
+    private static final Object TIE_LOCK = new Object();
+    /** Batch components with more accounts than this are settled one transfer at a time. */
+    private static final int MAX_LOCKED_ACCOUNTS = 1024;
+    /** Below this many transfers a batch task settles its components itself instead of splitting. */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * Moves amount from one account to the other: both sides happen or neither does.
+     *
+     * Both accounts are locked for the transfer (freeze/close wait for it), always in
+     * the same global order: by id, then by identity hash. Two transfers A->B and B->A
+     * therefore lock in the same order and cannot deadlock.
+     * The balances themselves are updated as usual: with CONCURRENT accounts, direct
+     * deposits/withdrawals on other threads stay lock-free and the withdraw still does
+     * the funds check atomically.
+     */
     public void transfer(Account from, Account to, BigDecimal amount) {
+        lockAndTransfer(from, to, amount);
+    }
+
+    private static void lockAndTransfer(Account from, Account to, BigDecimal amount) {
         if(from == null || to == null) throw new IllegalArgumentException("Account required");
         if(from == to) throw new IllegalArgumentException("cannot transfer to same account");
+        if(amount == null || amount.signum() <= 0) throw new IllegalArgumentException("amount > 0 required");
+        int order = lockOrder(from, to);
+        if(order == 0) {
+            synchronized (TIE_LOCK) {
+                lockedTransfer(from, to, from, to, amount);
+            }
+        } else if(order < 0) {
+            lockedTransfer(from, to, from, to, amount);
+        } else {
+            lockedTransfer(from, to, to, from, amount);
+        }
+    }
+
+    private static void lockedTransfer(Account from, Account to, Account first, Account second, BigDecimal amount) {
+        synchronized (first) {
+            synchronized (second) {
+                transferHoldingLocks(from, to, amount);
+            }
+        }
+    }
+
+    private static void transferHoldingLocks(Account from, Account to, BigDecimal amount) {
+        // check the receiver before taking money out, so a failed transfer changes nothing
+        if(to.getStatus() != AccountStatus.ACTIVE) {
+            throw new IllegalStateException("Account is not active" + to.getStatus());
+        }
         from.withdraw(amount);
-        to.deposit(amount);
+        try {
+            to.deposit(amount);
+        } catch (RuntimeException e) {
+            from.deposit(amount); // refund (e.g. balance overflow); from is still active
+            throw e;
+        }
+    }
+
+    /** Global lock order: by id, then by identity hash; 0 only for a full tie. */
+    private static int lockOrder(Account a, Account b) {
+        int order = a.getId().compareTo(b.getId());
+        return order != 0 ? order : Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+    }
+
+    // ---- batches ------------------------------------------------------------------------
+
+    /** Same as transferAll(requests, pool) on the common fork/join pool. */
+    public List<TransferResult> transferAll(List<TransferRequest> requests) {
+        return transferAll(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Settles a batch of transfers and reports the outcome of each one, in request order:
+     * a transfer that cannot happen (bad request, inactive account, insufficient funds)
+     * is FAILED with a reason, and the rest of the batch goes on.
+     *
+     * How:
+     * - Transfers are partitioned into COMPONENTS: groups of accounts linked by some
+     *   transfer of the batch (union-find). Components share no account, so they are
+     *   settled in parallel on the pool.
+     * - Within a component, transfers keep their batch order. With all its accounts
+     *   locked (same global order as transfer()), the component is first played on long
+     *   minor-unit balances: each transfer is checked (status, funds) and applied to the
+     *   running balances. Then every account receives ONE net deposit or withdrawal, so
+     *   opposing transfers (A->B 100, B->A 60) cancel out and cost no BigDecimal math.
+     * - The outcome equals running transfer() on the batch in order, component by
+     *   component. If a net change fails anyway (a lock-free withdraw on another
+     *   thread got there first, or a lock-free deposit made a credit overflow), the
+     *   component is rolled back and settled transfer by transfer. So are components with more than MAX_LOCKED_ACCOUNTS accounts, or
+     *   whose balances are not exact in minor units.
+     * - Amounts must be exact in minor units (Account.MINOR_UNIT_SCALE decimals), for
+     *   SIMPLE accounts as well; others fail.
+     */
+    public List<TransferResult> transferAll(List<TransferRequest> requests, ForkJoinPool pool) {
+        Objects.requireNonNull(requests, "requests");
+        Objects.requireNonNull(pool, "pool");
+        var batch = new Batch(requests);
+        if(batch.componentCount > 0) pool.invoke(new SettleTask(batch, 0, batch.componentCount));
+        batch.fillResults();
+        return Collections.unmodifiableList(Arrays.asList(batch.results));
+    }
+
+    /** Outcome codes of a netted transfer; 3 + ordinal for an inactive account's status. */
+    private static final byte COMPLETED = 0, NO_FUNDS = 1, OVERFLOW = 2, INACTIVE = 3;
+
+    /**
+     * A batch split into components: request and account indexes grouped per component.
+     * Valid requests get a POSITION in component order; what settling reads per transfer
+     * (amount, local from/to) is copied into position-indexed arrays, so a component is
+     * played over contiguous memory rather than jumping around the request list.
+     */
+    private static final class Batch {
+        final TransferRequest[] requests;
+        final TransferResult[] results;        // filled for invalid requests up front, and by fallbacks
+        final long[] units;                    // amount in minor units, per request
+        final int[] from, to;                  // account index, per request
+        Account[] accounts = new Account[16];
+        int accountCount;
+        int componentCount;
+        int[] requestStart, requestOrder;      // positions of component c: requestStart[c] .. requestStart[c+1]; requestOrder[p] = request
+        int[] position;                        // request -> position
+        long[] posUnits;                       // per position: amount in minor units
+        int[] posFrom, posTo;                  // per position: account index within the component
+        byte[] outcome;                        // per position: outcome code of a netted transfer
+        int[] accountStart, accountOrder;      // accounts of component c, same layout as requests
+
+        Batch(List<TransferRequest> list) {
+            int n = list.size();
+            requests = list.toArray(new TransferRequest[0]);
+            results = new TransferResult[n];
+            units = new long[n];
+            from = new int[n];
+            to = new int[n];
+            var index = new IdentityHashMap<Account, Integer>();
+            for(int i = 0; i < n; i++) {
+                TransferRequest r = requests[i];
+                String problem = validate(r);
+                if(problem == null) {
+                    try {
+                        units[i] = Account.toMinorUnits(r.amount());
+                    } catch (IllegalArgumentException e) {
+                        problem = e.getMessage();
+                    }
+                }
+                if(problem != null) {
+                    results[i] = TransferResult.failed(r, problem);
+                    continue;
+                }
+                from[i] = indexOf(index, r.from());
+                to[i] = indexOf(index, r.to());
+            }
+            group();
+        }
+
+        private static String validate(TransferRequest r) {
+            if(r == null || r.from() == null || r.to() == null) return "Account required";
+            if(r.from() == r.to()) return "cannot transfer to same account";
+            if(r.amount() == null || r.amount().signum() <= 0) return "amount > 0 required";
+            return null;
+        }
+
+        private int indexOf(IdentityHashMap<Account, Integer> index, Account account) {
+            Integer i = index.get(account);
+            if(i != null) return i;
+            if(accountCount == accounts.length) accounts = Arrays.copyOf(accounts, accountCount * 2);
+            accounts[accountCount] = account;
+            index.put(account, accountCount);
+            return accountCount++;
+        }
+
+        /** Union-find over accounts, then counting sorts of requests and accounts by component. */
+        private void group() {
+            int[] parent = new int[accountCount];
+            for(int a = 0; a < accountCount; a++) parent[a] = a;
+            for(int i = 0; i < results.length; i++) {
+                if(results[i] != null) continue;
+                int x = find(parent, from[i]), y = find(parent, to[i]);
+                if(x != y) parent[x] = y;
+            }
+            int[] component = new int[accountCount];
+            Arrays.fill(component, -1);
+            for(int a = 0; a < accountCount; a++) {
+                int root = find(parent, a);
+                if(component[root] < 0) component[root] = componentCount++;
+                component[a] = component[root];
+            }
+
+            requestStart = new int[componentCount + 1];
+            for(int i = 0; i < results.length; i++) {
+                if(results[i] == null) requestStart[component[from[i]] + 1]++;
+            }
+            for(int c = 0; c < componentCount; c++) requestStart[c + 1] += requestStart[c];
+            requestOrder = new int[requestStart[componentCount]];
+            int[] next = Arrays.copyOf(requestStart, componentCount);
+            for(int i = 0; i < results.length; i++) {
+                if(results[i] == null) requestOrder[next[component[from[i]]]++] = i;
+            }
+
+            accountStart = new int[componentCount + 1];
+            for(int a = 0; a < accountCount; a++) accountStart[component[a] + 1]++;
+            for(int c = 0; c < componentCount; c++) accountStart[c + 1] += accountStart[c];
+            accountOrder = new int[accountCount];
+            int[] localIndex = new int[accountCount]; // account index -> position within its component
+            next = Arrays.copyOf(accountStart, componentCount);
+            for(int a = 0; a < accountCount; a++) {
+                int c = component[a];
+                localIndex[a] = next[c] - accountStart[c];
+                accountOrder[next[c]++] = a;
+            }
+
+            int positions = requestOrder.length;
+            position = new int[results.length];
+            posUnits = new long[positions];
+            posFrom = new int[positions];
+            posTo = new int[positions];
+            outcome = new byte[positions];
+            for(int p = 0; p < positions; p++) {
+                int i = requestOrder[p];
+                position[i] = p;
+                posUnits[p] = units[i];
+                posFrom[p] = localIndex[from[i]];
+                posTo[p] = localIndex[to[i]];
+            }
+        }
+
+        /** Builds the results of netted transfers from their outcome codes, in request order. */
+        void fillResults() {
+            AccountStatus[] statuses = AccountStatus.values();
+            for(int i = 0; i < results.length; i++) {
+                if(results[i] != null) continue;
+                TransferRequest r = requests[i];
+                byte code = outcome[position[i]];
+                results[i] = switch (code) {
+                    case COMPLETED -> TransferResult.completed(r);
+                    case NO_FUNDS -> TransferResult.failed(r, r.from().insufficientFundsMessage()); // same as withdraw()
+                    case OVERFLOW -> TransferResult.failed(r, "balance overflow");
+                    default -> TransferResult.failed(r, "Account is not active" + statuses[code - INACTIVE]);
+                };
+            }
+        }
+
+        private static int find(int[] parent, int x) {
+            while(parent[x] != x) {
+                parent[x] = parent[parent[x]]; // path halving
+                x = parent[x];
+            }
+            return x;
+        }
+    }
+
+    /** Settles components [lo, hi); splits while the range holds many transfers. */
+    private static final class SettleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final int lo, hi;
+
+        SettleTask(Batch batch, int lo, int hi) {
+            this.batch = batch;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            int transfers = batch.requestStart[hi] - batch.requestStart[lo];
+            if(hi - lo == 1 || transfers <= SEQUENTIAL_THRESHOLD) {
+                for(int c = lo; c < hi; c++) settle(batch, c);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SettleTask(batch, lo, mid), new SettleTask(batch, mid, hi));
+        }
+    }
+
+    private static void settle(Batch batch, int c) {
+        Account[] members = new Account[batch.accountStart[c + 1] - batch.accountStart[c]];
+        for(int k = 0; k < members.length; k++) members[k] = batch.accounts[batch.accountOrder[batch.accountStart[c] + k]];
+        if(members.length > MAX_LOCKED_ACCOUNTS) {
+            settleOneByOne(batch, c);
+            return;
+        }
+        Account[] locks = members.clone();
+        Arrays.sort(locks, Bank::lockOrder);
+        boolean tie = false;
+        for(int k = 1; k < locks.length; k++) tie |= lockOrder(locks[k - 1], locks[k]) == 0;
+        if(tie) {
+            synchronized (TIE_LOCK) {
+                settleLocked(batch, c, members, locks, 0);
+            }
+        } else {
+            settleLocked(batch, c, members, locks, 0);
+        }
+    }
+
+    /** Takes locks[k..] in order (one frame per lock), then settles the component. */
+    private static void settleLocked(Batch batch, int c, Account[] members, Account[] locks, int k) {
+        if(k < locks.length) {
+            synchronized (locks[k]) {
+                settleLocked(batch, c, members, locks, k + 1);
+            }
+            return;
+        }
+        if(!settleNetted(batch, c, members)) {
+            for(int p = batch.requestStart[c]; p < batch.requestStart[c + 1]; p++) {
+                int i = batch.requestOrder[p];
+                TransferRequest r = batch.requests[i];
+                try {
+                    transferHoldingLocks(r.from(), r.to(), r.amount());
+                    batch.results[i] = TransferResult.completed(r);
+                } catch (RuntimeException e) {
+                    batch.results[i] = TransferResult.failed(r, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays the component on long balances, then applies one net change per account.
+     * Returns false, with every account unchanged, if that is not possible.
+     */
+    private static boolean settleNetted(Batch batch, int c, Account[] members) {
+        int m = members.length;
+        long[] start = new long[m];
+        long[] balance = new long[m];
+        boolean[] active = new boolean[m];
+        try {
+            for(int k = 0; k < m; k++) {
+                start[k] = balance[k] = Account.toMinorUnits(members[k].getBalance());
+                active[k] = members[k].getStatus() == AccountStatus.ACTIVE;
+            }
+        } catch (IllegalArgumentException e) {
+            return false; // a SIMPLE balance with more decimals than minor units hold
+        }
+
+        long[] posUnits = batch.posUnits;
+        int[] posFrom = batch.posFrom, posTo = batch.posTo;
+        byte[] outcome = batch.outcome;
+        for(int p = batch.requestStart[c]; p < batch.requestStart[c + 1]; p++) {
+            int f = posFrom[p], t = posTo[p];
+            long u = posUnits[p];
+            if(!active[f] || !active[t]) {
+                Account inactive = members[active[t] ? f : t]; // receiver first, like transfer()
+                outcome[p] = (byte) (INACTIVE + inactive.getStatus().ordinal());
+            } else if(balance[f] < u) {
+                outcome[p] = NO_FUNDS;
+            } else if(balance[t] > Long.MAX_VALUE - u) {
+                outcome[p] = OVERFLOW;
+            } else {
+                balance[f] -= u;
+                balance[t] += u;
+                outcome[p] = COMPLETED;
+            }
+        }
+
+        // debits first, then credits; if either step fails (a lock-free withdraw on another
+        // thread took the funds, a lock-free deposit made a credit overflow), the steps
+        // already done are undone and the component falls back to transfer by transfer
+        int debited = 0, credited = 0;
+        try {
+            for(; debited < m; debited++) {
+                long delta = balance[debited] - start[debited];
+                if(delta < 0) members[debited].withdraw(BigDecimal.valueOf(-delta, Account.MINOR_UNIT_SCALE));
+            }
+            for(; credited < m; credited++) {
+                long delta = balance[credited] - start[credited];
+                if(delta > 0) members[credited].deposit(BigDecimal.valueOf(delta, Account.MINOR_UNIT_SCALE));
+            }
+        } catch (RuntimeException e) {
+            for(int k = 0; k < credited; k++) {
+                long delta = balance[k] - start[k];
+                if(delta > 0) members[k].withdraw(BigDecimal.valueOf(delta, Account.MINOR_UNIT_SCALE));
+            }
+            for(int k = 0; k < debited; k++) {
+                long delta = balance[k] - start[k];
+                if(delta < 0) members[k].deposit(BigDecimal.valueOf(-delta, Account.MINOR_UNIT_SCALE));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /** Fallback for huge components: each transfer locks its own two accounts. */
+    private static void settleOneByOne(Batch batch, int c) {
+        for(int p = batch.requestStart[c]; p < batch.requestStart[c + 1]; p++) {
+            int i = batch.requestOrder[p];
+            TransferRequest r = batch.requests[i];
+            try {
+                lockAndTransfer(r.from(), r.to(), r.amount());
+                batch.results[i] = TransferResult.completed(r);
+            } catch (RuntimeException e) {
+                batch.results[i] = TransferResult.failed(r, e.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,10 @@
+package com.son.oop.bank.service;
+
+import java.math.BigDecimal;
+import com.son.oop.bank.domain.Account;
+
+/**
+ * One transfer of a batch (see Bank.transferAll). Not validated here: a bad request
+ * (null account, same account, amount <= 0) becomes a FAILED result, not an exception.
+ */
+public record TransferRequest(Account from, Account to, BigDecimal amount) {}
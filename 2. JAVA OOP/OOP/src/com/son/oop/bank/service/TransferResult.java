@@ -0,0 +1,19 @@
+package com.son.oop.bank.service;
+
+/** Outcome of one TransferRequest of a batch; reason is null when completed. */
+public record TransferResult(TransferRequest request, Status status, String reason) {
+
+    public enum Status { COMPLETED, FAILED }
+
+    public static TransferResult completed(TransferRequest request) {
+        return new TransferResult(request, Status.COMPLETED, null);
+    }
+
+    public static TransferResult failed(TransferRequest request, String reason) {
+        return new TransferResult(request, Status.FAILED, reason);
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
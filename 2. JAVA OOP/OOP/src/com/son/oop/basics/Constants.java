@@ -9,6 +9,14 @@ public class Constants {
     public enum AccountType { SAVINGS, CHECKING }
     public enum AccountStatus { ACTIVE, FROZEN, CLOSED }
 
+    /**
+     * How an Account keeps its balance.
+     * SIMPLE: a plain BigDecimal field, for single-threaded use.
+     * CONCURRENT: scaled long minor units in an AtomicLong, safe for concurrent
+     * deposits, withdrawals and transfers.
+     */
+    public enum BalanceMode { SIMPLE, CONCURRENT }
+
     // record (JDK16+)
     public record Book(String isbn, String title, String author) {}
 
@@ -0,0 +1,135 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ColumnarStudentStore — a column-oriented backend built from primitive arrays.
+ *
+ * Layout (row i is spread across the arrays at index i):
+ *   ids[i]        int
+ *   ages[i]       int
+ *   gpas[i]       double
+ *   majorCodes[i] int     → index into the 'majors' dictionary (of interned Majors)
+ *   names[i]      String reference
+ *
+ * Why?
+ * - A Student object costs an object header plus a reference per field. With millions
+ *   of rows that overhead dominates, and scanning one field means chasing one pointer
+ *   per student. Here a GPA scan walks one contiguous double[] (cache-friendly),
+ *   and a major comparison is an int comparison on majorCodes.
+ * - Majors are dictionary-encoded: there are only a few distinct majors, so each one
+ *   is stored once and rows hold a small int code.
+ *
+ * Trade-off:
+ * - get(row) creates a new Student every time. Use the per-field accessors when
+ *   only one or two fields are needed.
+ *
+ * Arrays grow by doubling (amortized O(1) append), like ArrayList.
+ *
+ * pin() is O(1): growing copies into NEW arrays and leaves the old ones as they were,
+ * and appends only write slots at or above the current size, so a pinned store can
+ * keep reading the arrays it captured.
+ */
+final class ColumnarStudentStore implements StudentStore {
+
+    private int[] ids = new int[16];
+    private int[] ages = new int[16];
+    private double[] gpas = new double[16];
+    private int[] majorCodes = new int[16];
+    private String[] names = new String[16];
+    private int size;
+
+    /** Major dictionary: code → major (one per spelling; null allowed), majorCount used. */
+    private Major[] majors = new Major[8];
+    private int majorCount;
+    /** Reverse dictionary (Majors are interned, so identity keys); null for a pinned store. */
+    private final Map<Major, Integer> majorToCode;
+
+    ColumnarStudentStore() { this.majorToCode = new HashMap<>(); }
+
+    /** A pinned view over the given arrays (see pin()). */
+    private ColumnarStudentStore(ColumnarStudentStore live) {
+        this.ids = live.ids;
+        this.ages = live.ages;
+        this.gpas = live.gpas;
+        this.majorCodes = live.majorCodes;
+        this.names = live.names;
+        this.size = live.size;
+        this.majors = live.majors;
+        this.majorCount = live.majorCount;
+        this.majorToCode = null;
+    }
+
+    @Override public int size() { return size; }
+
+    @Override
+    public void append(Student s) {
+        if (majorToCode == null) throw new UnsupportedOperationException("pinned store is read-only");
+        if (size == ids.length) grow();
+        ids[size] = s.getId();
+        ages[size] = s.getAge();
+        gpas[size] = s.getGpa();
+        majorCodes[size] = encodeMajor(s.getMajorRef());
+        names[size] = s.getName();
+        size++;
+    }
+
+    @Override
+    public void ensureCapacity(int rows) {
+        if (rows > ids.length) resize(rows);
+    }
+
+    @Override
+    public Student get(int row) {
+        checkRow(row);
+        return new Student(ids[row], names[row], ages[row], majors[majorCodes[row]], gpas[row]);
+    }
+
+    @Override public int id(int row) { checkRow(row); return ids[row]; }
+
+    @Override public int age(int row) { checkRow(row); return ages[row]; }
+
+    @Override public double gpa(int row) { checkRow(row); return gpas[row]; }
+
+    @Override public String name(int row) { checkRow(row); return names[row]; }
+
+    @Override
+    public String major(int row) {
+        Major m = majorRef(row);
+        return m == null ? null : m.name();
+    }
+
+    @Override public Major majorRef(int row) { checkRow(row); return majors[majorCodes[row]]; }
+
+    /** O(1): captures the current arrays and size (see class notes). */
+    @Override public StudentStore pin() { return new ColumnarStudentStore(this); }
+
+    private int encodeMajor(Major major) {
+        Integer code = majorToCode.get(major);
+        if (code == null) {
+            code = majorCount;
+            if (majorCount == majors.length) majors = Arrays.copyOf(majors, majorCount * 2);
+            majors[majorCount++] = major;
+            majorToCode.put(major, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        resize(ids.length * 2);
+    }
+
+    private void resize(int n) {
+        ids = Arrays.copyOf(ids, n);
+        ages = Arrays.copyOf(ages, n);
+        gpas = Arrays.copyOf(gpas, n);
+        majorCodes = Arrays.copyOf(majorCodes, n);
+        names = Arrays.copyOf(names, n);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException(row);
+    }
+}
@@ -0,0 +1,122 @@
+package com.son.oop.student;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ConcurrentAppendLog<T> — an append-only list that many threads can append to and
+ * read from at the same time, without locks.
+ *
+ * Storage: segments that double in size
+ * - Segment k holds BASE << k slots, so 32 segments cover every int index and the
+ *   segment directory never has to be resized or copied.
+ * - A segment is allocated by whichever appender needs it first (CAS on the directory).
+ * - Elements are never moved, so a reader can keep using an index forever.
+ *
+ * Publication protocol (lock-free, appenders never wait for each other):
+ * 1) reserve a slot: slot = reserved.getAndIncrement()   (no two appenders share a slot)
+ * 2) write the element into its slot                     (volatile write, never null)
+ * 3) "help" publish: while slot 'published' is filled, CAS published → published + 1
+ * An appender whose predecessor has not written yet simply returns; the predecessor's
+ * own step 3 will later advance 'published' past both slots. So 'published' only
+ * covers filled slots, and every index below it is visible to readers (the volatile
+ * slot write → CAS → volatile read chain gives the happens-before edge).
+ *
+ * Why helping instead of "wait for your turn"?
+ * - With more threads than cores, a waiter would burn its time slice spinning while
+ *   the thread it waits for is not even scheduled.
+ *
+ * Readers:
+ * - size() and get(i) are wait-free: one volatile read plus two array reads.
+ * - snapshot() pins the current size and returns a List view over it in O(1).
+ *   Later appends land beyond the pinned size, so the view never changes.
+ *
+ * Caveats:
+ * - An element becomes visible once every earlier slot is filled, which may be a bit
+ *   after append returns if an earlier appender is slow.
+ * - Null elements are not allowed (null marks an unfilled slot).
+ */
+final class ConcurrentAppendLog<T> {
+
+    private static final int BASE_BITS = 4;
+    private static final int BASE = 1 << BASE_BITS;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final AtomicReferenceArray<Object[]> segments = new AtomicReferenceArray<>(32);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    /** Appends a (non-null) element and returns its index. Lock-free. */
+    int append(T item) {
+        Objects.requireNonNull(item, "item");
+        int slot = reserved.getAndIncrement();
+        if (slot < 0) throw new IllegalStateException("log is full");
+        int seg = segmentOf(slot);
+        SLOT.setVolatile(segment(seg), slot - segmentStart(seg), item);
+        advancePublished();
+        return slot;
+    }
+
+    /** Moves 'published' forward over every contiguous filled slot. */
+    private void advancePublished() {
+        int p = published.get();
+        while (p < reserved.get() && isFilled(p)) {
+            published.compareAndSet(p, p + 1); // if it fails, someone else advanced it
+            p = published.get();
+        }
+    }
+
+    private boolean isFilled(int index) {
+        int seg = segmentOf(index);
+        Object[] s = segments.get(seg);
+        return s != null && SLOT.getVolatile(s, index - segmentStart(seg)) != null;
+    }
+
+    /** Number of published elements. Wait-free. */
+    int size() { return published.get(); }
+
+    /** Element at index (must be < size()). Wait-free. */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        if (index < 0 || index >= published.get()) throw new IndexOutOfBoundsException(index);
+        int seg = segmentOf(index);
+        return (T) segments.get(seg)[index - segmentStart(seg)];
+    }
+
+    /** O(1) read-only view of the elements published so far. */
+    List<T> snapshot() {
+        int size = published.get();
+        class Snapshot extends AbstractList<T> implements RandomAccess {
+            @Override public T get(int index) {
+                if (index >= size) throw new IndexOutOfBoundsException(index);
+                return ConcurrentAppendLog.this.get(index);
+            }
+            @Override public int size() { return size; }
+        }
+        return new Snapshot();
+    }
+
+    private Object[] segment(int seg) {
+        Object[] s = segments.get(seg);
+        if (s == null) {
+            segments.compareAndSet(seg, null, new Object[BASE << seg]);
+            s = segments.get(seg); // ours, or the one another appender installed first
+        }
+        return s;
+    }
+
+    /** Segment k covers indexes [BASE * (2^k - 1), BASE * (2^(k+1) - 1)). */
+    private static int segmentOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> BASE_BITS) + 1);
+    }
+
+    private static int segmentStart(int seg) {
+        return (int) (((1L << seg) - 1) << BASE_BITS);
+    }
+}
@@ -0,0 +1,162 @@
+package com.son.oop.student;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConcurrentRegistryStressDemo — a multi-threaded stress check for ConcurrentStudentRegistry.
+ *
+ * What it does:
+ *  1) WRITERS threads add students concurrently (disjoint id ranges), and every writer
+ *     also races the next writer by adding some of its ids first. Each contested id
+ *     must be accepted exactly once and rejected exactly once.
+ *  2) READERS threads hammer all(), findById, filterByMajor, groupByMajor and summary()
+ *     at the same time and check invariants on every snapshot they see:
+ *     - all() never shrinks, never contains null or a duplicate id
+ *     - every student in all() is already visible through findById
+ *     - filterByMajor only returns students of that major
+ *     - summary(): total == sum of per-major counts, leaders sorted by GPA desc, then name
+ *  3) After the writers finish, the final state is compared with a plain StudentRegistry
+ *     fed the same students sequentially (counts, averages within 1e-9, leaders).
+ *
+ * Run it with no arguments; it prints "OK" or fails with IllegalStateException.
+ * Optional args: students-per-writer writers readers (defaults 50000 4 4).
+ */
+public class ConcurrentRegistryStressDemo {
+
+    private static final String[] MAJORS = {"CS", "Math", "Physics", "Bio", "cs", "Chem"};
+
+    public static void main(String[] args) throws Exception {
+        int perWriter = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        ConcurrentStudentRegistry reg = new ConcurrentStudentRegistry();
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger contested = new AtomicInteger();
+        List<Future<?>> writerTasks = new ArrayList<>();
+        List<Future<?>> readerTasks = new ArrayList<>();
+        long t0 = System.nanoTime();
+
+        for (int w = 0; w < writers; w++) {
+            int base = w * perWriter;
+            int victimBase = ((w + 1) % writers) * perWriter; // ids owned by the next writer
+            writerTasks.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perWriter; i++) {
+                    tryAdd(reg, base + i, accepted, rejected);
+                    if (writers > 1 && i % 100 == 0) {
+                        contested.incrementAndGet();
+                        tryAdd(reg, victimBase + i, accepted, rejected); // races with the owner
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            readerTasks.add(pool.submit(() -> {
+                start.await();
+                int lastSize = 0;
+                while (writing.get()) {
+                    List<Student> snap = reg.all();
+                    check(snap.size() >= lastSize, "all() shrank");
+                    lastSize = snap.size();
+                    Set<Integer> seen = new HashSet<>();
+                    for (int i = Math.max(0, snap.size() - 2_000); i < snap.size(); i++) {
+                        Student s = snap.get(i);
+                        check(s != null, "null in snapshot");
+                        check(seen.add(s.getId()), "duplicate id in snapshot " + s.getId());
+                        check(reg.findById(s.getId()).isPresent(), "all() ahead of findById");
+                    }
+                    for (Student s : reg.filterByMajor("Math")) {
+                        check(s.getMajor().equalsIgnoreCase("Math"), "wrong major " + s);
+                    }
+                    for (var e : reg.groupByMajor().entrySet()) {
+                        List<Student> group = e.getValue();
+                        if (!group.isEmpty()) check(group.get(group.size() - 1).getMajor().equalsIgnoreCase(e.getKey()), "wrong group");
+                    }
+                    checkSummary(reg.summary());
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : writerTasks) unwrap(f);
+        writing.set(false);
+        for (Future<?> f : readerTasks) unwrap(f);
+        pool.shutdown();
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+
+        // ---- Final state vs. a sequential registry ------------------------------------
+        StudentRegistry expected = new StudentRegistry();
+        for (int id = 0; id < writers * perWriter; id++) expected.add(student(id));
+
+        List<Student> all = reg.all();
+        check(all.size() == writers * perWriter, "size " + all.size());
+        check(new HashSet<>(all).size() == all.size(), "duplicates in final snapshot");
+        check(accepted.get() == all.size(), "accepted " + accepted.get());
+        check(rejected.get() == contested.get(), "rejected " + rejected.get() + " of " + contested.get() + " contested ids");
+
+        StudentReport got = reg.summary(), exp = expected.summary();
+        check(got.total() == exp.total(), "total");
+        check(Math.abs(got.averageGpa() - exp.averageGpa()) < 1e-9, "average");
+        Map<String, StudentReport.MajorSummary> byMajor = new HashMap<>();
+        for (var m : got.majors()) byMajor.put(StudentRegistry.normalizeMajor(m.major()), m);
+        for (var m : exp.majors()) {
+            var g = byMajor.get(StudentRegistry.normalizeMajor(m.major()));
+            check(g != null && g.count() == m.count(), "count of " + m.major());
+            check(Math.abs(g.averageGpa() - m.averageGpa()) < 1e-9, "average of " + m.major());
+            check(g.top().equals(m.top()), "leaders of " + m.major());
+        }
+        System.out.printf("OK: %d students, %d writers, %d readers, %d ms%n",
+                all.size(), writers, readers, millis);
+    }
+
+    /**
+     * Deterministic student for an id. Names are unique per id, so leaders never tie on
+     * (GPA, name) and the concurrent and sequential top-3 must match exactly.
+     */
+    private static Student student(int id) {
+        return new Student(id, "S" + id, 18 + id % 8, MAJORS[id % MAJORS.length], (id * 37 % 401) / 100.0);
+    }
+
+    private static void tryAdd(ConcurrentStudentRegistry reg, int id, AtomicInteger accepted, AtomicInteger rejected) {
+        try {
+            reg.add(student(id));
+            accepted.incrementAndGet();
+        } catch (IllegalArgumentException duplicate) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    private static void checkSummary(StudentReport r) {
+        int sum = 0;
+        for (var m : r.majors()) {
+            sum += m.count();
+            for (int i = 1; i < m.top().size(); i++) {
+                check(StudentRegistry.BY_GPA_DESC_THEN_NAME.compare(m.top().get(i - 1), m.top().get(i)) <= 0,
+                        "leaders not sorted in " + m.major());
+            }
+        }
+        check(sum == r.total(), "summary total " + r.total() + " != " + sum);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) throw new IllegalStateException(message);
+    }
+
+    private static void unwrap(Future<?> f) throws InterruptedException {
+        try {
+            f.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("task failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.son.oop.student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ConcurrentStudentRegistry — a thread-safe variant of StudentRegistry.
+ *
+ * Use it when ingest threads call add while request threads read (findById,
+ * filterByMajor, report, ...). It offers the same operations as StudentRegistry.
+ *
+ * Design (no global lock):
+ * - Primary-key index: ConcurrentHashMap<Integer, Student>. putIfAbsent claims an id
+ *   atomically, so duplicates are rejected even when two threads race. The map locks
+ *   a single hash bin for a moment only while inserting (lock striping by id); get
+ *   never locks.
+ * - Storage: ConcurrentAppendLog (lock-free append, in-order publication). all() pins
+ *   the published size and returns a view in O(1), without copying.
+ * - Major index: ConcurrentHashMap from normalized major to a Bucket. Each bucket has its
+ *   own append log and an immutable Stats object (count, GPA sum, top 3) replaced by CAS.
+ *   So writers of different majors never contend, and a reader always sees a
+ *   self-consistent count/sum/top for a major.
+ *
+ * Visibility of an add, in order:
+ *   findById  →  all() / sortByGpaDescThenName  →  filterByMajor / groupByMajor  →  report
+ * Each read is consistent on its own (a prefix of what was added), but two reads made
+ * one after the other can observe an add that is still in progress at different stages.
+ *
+ * Reads are wait-free (volatile reads only), except sortByGpaDescThenName which sorts
+ * a copy of the snapshot.
+ */
+public class ConcurrentStudentRegistry {
+
+    private final ConcurrentHashMap<Integer, Student> byId = new ConcurrentHashMap<>();
+    private final ConcurrentAppendLog<Student> data = new ConcurrentAppendLog<>();
+    private final ConcurrentHashMap<String, Bucket> byMajor = new ConcurrentHashMap<>();
+    /** Buckets in the order their majors were first added (report order). */
+    private final ConcurrentAppendLog<Bucket> buckets = new ConcurrentAppendLog<>();
+
+    /**
+     * Adds a student. Safe to call from many threads at once.
+     *
+     * Throws:
+     * - NullPointerException if s is null
+     * - IllegalArgumentException if a student with the same id is already registered
+     */
+    public void add(Student s) {
+        Objects.requireNonNull(s, "student");
+        if (byId.putIfAbsent(s.getId(), s) != null) {
+            throw new IllegalArgumentException("duplicate student id: " + s.getId());
+        }
+        data.append(s);
+        Bucket bucket = byMajor.computeIfAbsent(majorKey(s.getMajor()), k -> newBucket(s.getMajor()));
+        bucket.students.append(s);
+        bucket.stats.updateAndGet(st -> st.plus(s));
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of all students added so far.
+     * Complexity: O(1) — a view pinned to the current size, nothing is copied.
+     */
+    public List<Student> all() { return data.snapshot(); }
+
+    /** Finds a student by id. O(1), never blocks. */
+    public Optional<Student> findById(int id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Students whose major equals the given major (case-insensitive), as a new mutable list.
+     * Complexity: O(k) for k matches. A null major matches nothing.
+     */
+    public List<Student> filterByMajor(String major) {
+        if (major == null) return new ArrayList<>();
+        Bucket bucket = byMajor.get(majorKey(major));
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.students.snapshot());
+    }
+
+    /** New list sorted by GPA descending, then name ascending. O(n log n). */
+    public List<Student> sortByGpaDescThenName() {
+        List<Student> copy = new ArrayList<>(data.snapshot());
+        copy.sort(StudentRegistry.BY_GPA_DESC_THEN_NAME);
+        return copy;
+    }
+
+    /**
+     * Groups students by major (first-seen order). Each list is a pinned snapshot of
+     * that major. Complexity: O(number of majors).
+     */
+    public Map<String, List<Student>> groupByMajor() {
+        Map<String, List<Student>> map = new LinkedHashMap<>();
+        for (Bucket b : buckets.snapshot()) map.put(b.major, b.students.snapshot());
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Structured report. Per major, count/average/top come from one atomic Stats
+     * object; the totals are the sums of those per-major figures, so the report is
+     * internally consistent. Complexity: O(number of majors).
+     */
+    public StudentReport summary() {
+        int total = 0;
+        double sum = 0.0;
+        List<StudentReport.MajorSummary> majors = new ArrayList<>();
+        for (Bucket b : buckets.snapshot()) {
+            Stats st = b.stats.get();
+            if (st.count == 0) continue; // bucket created, first add still in flight
+            total += st.count;
+            sum += st.gpaSum;
+            majors.add(new StudentReport.MajorSummary(b.major, st.count, st.gpaSum / st.count, Arrays.asList(st.top)));
+        }
+        return new StudentReport(total, total == 0 ? 0.0 : sum / total, majors);
+    }
+
+    /** Same text layout as StudentRegistry.report(). */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeReport(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /** Streams the report text to an Appendable. */
+    public void writeReport(Appendable out) throws IOException {
+        new ReportWriter(out).write(summary());
+    }
+
+    private Bucket newBucket(String major) {
+        Bucket b = new Bucket(major);
+        buckets.append(b);
+        return b;
+    }
+
+    /** Map key for a major; ConcurrentHashMap does not allow null keys. */
+    private static String majorKey(String major) {
+        return major == null ? "\u0000null" : StudentRegistry.normalizeMajor(major);
+    }
+
+    private static final class Bucket {
+        final String major;
+        final ConcurrentAppendLog<Student> students = new ConcurrentAppendLog<>();
+        final AtomicReference<Stats> stats = new AtomicReference<>(Stats.EMPTY);
+
+        Bucket(String major) { this.major = major; }
+    }
+
+    /** Immutable per-major aggregates; replaced as a whole with CAS on every add. */
+    private static final class Stats {
+        static final Stats EMPTY = new Stats(0, 0.0, new Student[0]);
+
+        final int count;
+        final double gpaSum;
+        final Student[] top; // best first, at most MajorBucket.REPORT_TOP
+
+        Stats(int count, double gpaSum, Student[] top) {
+            this.count = count;
+            this.gpaSum = gpaSum;
+            this.top = top;
+        }
+
+        /** New Stats including s. Ties on GPA and name keep the earlier student first. */
+        Stats plus(Student s) {
+            int pos = 0;
+            while (pos < top.length && StudentRegistry.BY_GPA_DESC_THEN_NAME.compare(top[pos], s) <= 0) pos++;
+            Student[] newTop = top;
+            if (pos < MajorBucket.REPORT_TOP) {
+                int len = Math.min(top.length + 1, MajorBucket.REPORT_TOP);
+                newTop = new Student[len];
+                System.arraycopy(top, 0, newTop, 0, pos);
+                newTop[pos] = s;
+                System.arraycopy(top, pos, newTop, pos + 1, len - pos - 1);
+            }
+            return new Stats(count + 1, gpaSum + s.getGpa(), newTop);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * GpaRankIndex — an order-statistic tree over the rows of a StudentStore, ordered like
+ * the GPA ranking (GPA desc, then name, then row; see RowSort).
+ *
+ * Structure: a TREAP (binary search tree by ranking order + max-heap by a random
+ * priority, which keeps the expected depth O(log n)). Every node also stores the size
+ * of its subtree, which turns position questions into one root-to-leaf walk:
+ * - rankOf(row): how many rows rank before this one          O(log n)
+ * - select(k):   the row at position k of the ranking          O(log n)
+ * - countAbove / countAtLeast(gpa): rows with a higher / not lower GPA   O(log n)
+ * - insert(row): adding a student keeps the index current      O(log n)
+ *
+ * Array-based, no node objects: node i IS row i, so left[i], right[i], size[i] and
+ * priority[i] are four int arrays indexed by row (16 bytes per student). Rows are
+ * append-only, so nodes are never deleted.
+ *
+ * Building from an already sorted ranking is O(n): the tree shape for given priorities
+ * is then the Cartesian tree of the priority sequence, built with one stack pass.
+ */
+final class GpaRankIndex {
+
+    private static final int NIL = -1;
+
+    private final StudentStore store;
+    private final SplittableRandom random = new SplittableRandom(0x5EED_CAFEL);
+    private int[] left, right, size, priority;
+    private int root = NIL;
+    private int count;
+
+    /** Builds the index over 'ranking' (all rows of the store, in ranking order). O(n). */
+    GpaRankIndex(StudentStore store, int[] ranking) {
+        this.store = store;
+        int capacity = Math.max(16, ranking.length);
+        left = new int[capacity];
+        right = new int[capacity];
+        size = new int[capacity];
+        priority = new int[capacity];
+        int[] stack = new int[ranking.length];
+        int top = 0;
+        for (int row : ranking) {
+            priority[row] = random.nextInt();
+            right[row] = NIL;
+            int last = NIL;
+            while (top > 0 && priority[stack[top - 1]] < priority[row]) last = stack[--top];
+            left[row] = last;
+            if (top > 0) right[stack[top - 1]] = row;
+            stack[top++] = row;
+        }
+        root = top > 0 ? stack[0] : NIL;
+        count = ranking.length;
+        computeSizes(root);
+    }
+
+    /** Number of indexed rows. */
+    int size() { return count; }
+
+    /** Adds a row just appended to the store. O(log n) expected. */
+    void insert(int row) {
+        if (row >= left.length) grow(row + 1);
+        left[row] = NIL;
+        right[row] = NIL;
+        size[row] = 1;
+        priority[row] = random.nextInt();
+        root = insert(root, row);
+        count++;
+    }
+
+    /** Number of rows ranked before 'row' (its 0-based position in the ranking). */
+    int rankOf(int row) {
+        int rank = 0;
+        int node = root;
+        while (node != row) {
+            if (before(row, node)) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + sizeOf(left[row]);
+    }
+
+    /** The row at 0-based position k of the ranking (0 ≤ k < size()). */
+    int select(int k) {
+        int node = root;
+        while (true) {
+            int l = sizeOf(left[node]);
+            if (k < l) {
+                node = left[node];
+            } else if (k == l) {
+                return node;
+            } else {
+                k -= l + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /** Rows whose GPA is greater than 'gpa' (by Double.compare). */
+    int countAbove(double gpa) { return countWhileGpa(gpa, 1); }
+
+    /** Rows whose GPA is greater than or equal to 'gpa' (by Double.compare). */
+    int countAtLeast(double gpa) { return countWhileGpa(gpa, 0); }
+
+    /** All rows in ranking order (in-order walk): O(n), no comparisons. */
+    int[] toRanking() {
+        int[] out = new int[count];
+        int[] stack = new int[64];
+        int top = 0, i = 0, node = root;
+        while (node != NIL || top > 0) {
+            while (node != NIL) {
+                if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = node;
+                node = left[node];
+            }
+            node = stack[--top];
+            out[i++] = node;
+            node = right[node];
+        }
+        return out;
+    }
+
+    /**
+     * Rows with Double.compare(gpa(row), gpa) ≥ minCompare. Those rows form a prefix of
+     * the ranking (GPA descending), so one descent counts them.
+     */
+    private int countWhileGpa(double gpa, int minCompare) {
+        int n = 0;
+        int node = root;
+        while (node != NIL) {
+            if (Double.compare(store.gpa(node), gpa) >= minCompare) {
+                n += sizeOf(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return n;
+    }
+
+    private int insert(int node, int row) {
+        if (node == NIL) return row;
+        size[node]++;
+        if (before(row, node)) {
+            left[node] = insert(left[node], row);
+            if (priority[left[node]] > priority[node]) node = rotateRight(node);
+        } else {
+            right[node] = insert(right[node], row);
+            if (priority[right[node]] > priority[node]) node = rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(int node) {
+        int l = left[node];
+        left[node] = right[l];
+        right[l] = node;
+        size[l] = size[node];
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+        return l;
+    }
+
+    private int rotateLeft(int node) {
+        int r = right[node];
+        right[node] = left[r];
+        left[r] = node;
+        size[r] = size[node];
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+        return r;
+    }
+
+    private int computeSizes(int node) {
+        if (node == NIL) return 0;
+        size[node] = computeSizes(left[node]) + computeSizes(right[node]) + 1;
+        return size[node];
+    }
+
+    private boolean before(int a, int b) {
+        return RowSort.compareByGpaDescThenName(store, a, b) < 0;
+    }
+
+    private int sizeOf(int node) { return node == NIL ? 0 : size[node]; }
+
+    private void grow(int min) {
+        int n = Math.max(min, left.length * 2);
+        left = Arrays.copyOf(left, n);
+        right = Arrays.copyOf(right, n);
+        size = Arrays.copyOf(size, n);
+        priority = Arrays.copyOf(priority, n);
+    }
+}
@@ -0,0 +1,102 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+
+/**
+ * Histogram — counts of values in fixed-width buckets over [low, high].
+ *
+ * - Bucket i covers [low + i * width, low + (i + 1) * width); the last bucket also
+ *   includes 'high' itself (so a GPA of exactly 4.0 lands in the top bucket).
+ * - Values below 'low' are counted as underflow, values above 'high' (and NaN) as
+ *   overflow, so nothing is silently dropped.
+ * - add is O(1): one subtraction, one division, one increment.
+ * - Histograms with the same layout can be merged by adding counts (e.g. across shards).
+ *
+ * Caveats:
+ * - Not thread-safe.
+ */
+public final class Histogram {
+
+    private final double low, high, width;
+    private final long[] counts;
+    private long underflow, overflow;
+
+    /** Throws IllegalArgumentException unless low < high and buckets > 0. */
+    public Histogram(double low, double high, int buckets) {
+        if (!(low < high)) throw new IllegalArgumentException("low must be < high");
+        if (buckets <= 0) throw new IllegalArgumentException("buckets must be > 0");
+        this.low = low;
+        this.high = high;
+        this.width = (high - low) / buckets;
+        this.counts = new long[buckets];
+    }
+
+    public void add(double value) {
+        if (value < low) {
+            underflow++;
+        } else if (value <= high) {
+            counts[Math.min(counts.length - 1, (int) ((value - low) / width))]++;
+        } else {
+            overflow++; // above high, or NaN
+        }
+    }
+
+    /**
+     * Adds the counts of 'other' to this histogram.
+     * Throws IllegalArgumentException if the bucket layouts differ.
+     */
+    public void merge(Histogram other) {
+        if (other.low != low || other.high != high || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("histogram layouts differ");
+        }
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        underflow += other.underflow;
+        overflow += other.overflow;
+    }
+
+    public int buckets() { return counts.length; }
+
+    /** Count of bucket i (0 ≤ i < buckets()). */
+    public long count(int bucket) { return counts[bucket]; }
+
+    /** Lower bound of bucket i. */
+    public double bucketLow(int bucket) { return low + bucket * width; }
+
+    public long underflow() { return underflow; }
+
+    public long overflow() { return overflow; }
+
+    /** Every value added, including underflow and overflow. */
+    public long total() {
+        long total = underflow + overflow;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    /** Copy that evolves independently of this histogram. */
+    public Histogram copy() {
+        Histogram h = new Histogram(low, high, counts.length);
+        h.merge(this);
+        return h;
+    }
+
+    /** E.g. "[<0.0: 0, 0.0: 3, 0.25: 5, ..., >4.0: 0]" (bucket lower bounds → counts). */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[<").append(low).append(": ").append(underflow);
+        for (int i = 0; i < counts.length; i++) sb.append(", ").append(bucketLow(i)).append(": ").append(counts[i]);
+        return sb.append(", >").append(high).append(": ").append(overflow).append(']').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Histogram)) return false;
+        Histogram that = (Histogram) o;
+        return low == that.low && high == that.high && underflow == that.underflow
+                && overflow == that.overflow && Arrays.equals(counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() { return Arrays.hashCode(counts) * 31 + Long.hashCode(underflow + overflow); }
+}
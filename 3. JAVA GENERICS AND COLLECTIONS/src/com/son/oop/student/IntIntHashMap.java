@@ -0,0 +1,119 @@
+package com.son.oop.student;
+
+/**
+ * IntIntHashMap — a small open-addressing hash map from int keys to int values.
+ *
+ * Why not HashMap<Integer, Integer>?
+ * - Every entry of a HashMap is a separate Node object plus two boxed Integers.
+ *   With millions of ids that is tens of bytes of overhead per entry and a lot of GC work.
+ * - Here keys and values live in two parallel int[] arrays, so a lookup touches
+ *   a couple of cache lines and allocates nothing.
+ *
+ * Design:
+ * - Linear probing over a power-of-two table (index = hash & mask).
+ * - Load factor is kept at or below 0.5, so probe sequences stay short.
+ * - Values are stored as (value + 1): a 0 slot means "empty". This lets any int be a key
+ *   (including 0) without a separate "used" array. Consequently values must be >= 0,
+ *   which is fine for row positions.
+ * - There is no remove: the registry is append-only, so tombstones are not needed.
+ *
+ * Caveats:
+ * - Not thread-safe, same as StudentRegistry which owns it.
+ */
+final class IntIntHashMap {
+
+    /** Returned by get/putIfAbsent when the key is absent. */
+    static final int NO_VALUE = -1;
+
+    private int[] keys;
+    private int[] values; // value + 1; 0 == empty slot
+    private int mask;
+    private int size;
+
+    IntIntHashMap() { this(16); }
+
+    IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /** Number of keys stored. */
+    int size() { return size; }
+
+    /**
+     * Returns the value mapped to key, or NO_VALUE if absent.
+     * Complexity: O(1) expected, no allocation.
+     */
+    int get(int key) {
+        int i = mix(key) & mask;
+        while (values[i] != 0) {
+            if (keys[i] == key) return values[i] - 1;
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Maps key to value only if key is not present yet.
+     *
+     * Returns:
+     * - NO_VALUE if the mapping was inserted
+     * - the existing value otherwise (the map is left unchanged)
+     */
+    int putIfAbsent(int key, int value) {
+        if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+        int i = mix(key) & mask;
+        while (values[i] != 0) {
+            if (keys[i] == key) return values[i] - 1;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value + 1;
+        if (++size > (mask + 1) >>> 1) rehash((mask + 1) << 1);
+        return NO_VALUE;
+    }
+
+    /**
+     * Grows the table (once) so that 'expectedSize' keys fit without further rehashing.
+     * Used before bulk inserts; never shrinks.
+     */
+    void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        if (capacity > mask + 1) rehash(capacity);
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential ids (101, 102, ...) do not
+     * end up in one long probe run. Multiplicative (Fibonacci) hashing plus a
+     * final xor-shift to fold the high bits into the low ones used by the mask.
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (values[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Smallest power of two that keeps expectedSize at <= 50% load. */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(16L, (long) expectedSize * 2);
+        if (needed > (1 << 30)) return 1 << 30;
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+
+/**
+ * IntList — a minimal growable list of primitive ints (like ArrayList<Integer>, without boxing).
+ * Used by the registry's indexes to hold row numbers.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() { this(8); }
+
+    IntList(int initialCapacity) { values = new int[Math.max(1, initialCapacity)]; }
+
+    int size() { return size; }
+
+    void add(int v) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = v;
+    }
+
+    int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return values[index];
+    }
+
+    /** Copy of the first size() values. */
+    int[] toArray() { return Arrays.copyOf(values, size); }
+}
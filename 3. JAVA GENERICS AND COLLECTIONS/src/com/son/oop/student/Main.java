@@ -74,10 +74,10 @@ public class Main {
         // End of demo.
         // Complexity overview (rough):
         //  - Printing all: O(n)
-        //  - findById: O(n) linear scan
-        //  - filterByMajor: O(n)
+        //  - findById: O(1) via the id index
+        //  - filterByMajor: O(k) via the major index (k = matches)
         //  - sort: O(n log n)
-        //  - groupByMajor: O(n) to build + O(m log m) per-major top-3 sorting (m = size of group)
-        //  - report: dominated by grouping and per-group sorting (≤ O(n log n) overall)
+        //  - groupByMajor: O(1), returns a read-only view of the major index
+        //  - report: O(number of majors), read from aggregates maintained by add
     }
 }
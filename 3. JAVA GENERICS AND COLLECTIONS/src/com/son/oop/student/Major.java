@@ -0,0 +1,82 @@
+package com.son.oop.student;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Major — a canonical, interned major name with a small int code.
+ *
+ * Why?
+ * - Millions of students share a few dozen majors. With a String per student, every
+ *   source (CSV import, journal replay, snapshot load) produced its own copy of "CS",
+ *   and every filter lower-cased and compared strings.
+ * - Major.of(spelling) returns ONE shared instance per spelling, so a Student holds a
+ *   reference to it and duplicate strings are garbage right after parsing.
+ * - code() is a dense int (0, 1, 2, ...) per case-insensitive major: "CS" and "cs" are
+ *   two spellings (two instances, each printed as written) with the SAME code. Grouping
+ *   and filtering compare codes: one int comparison instead of equalsIgnoreCase.
+ *
+ * Lookup:
+ * - of(spelling) interns the spelling on first use (null stays null).
+ * - codeOf(text) finds the code of a major given in any case WITHOUT registering it,
+ *   so looking up an unknown major does not grow the dictionary; -1 if unknown.
+ *
+ * Caveats:
+ * - The dictionary is global and never shrinks: fine for a closed set of majors, not
+ *   for free-form text. Codes are stable for the life of the JVM, not across runs (they
+ *   are never written to files; files keep the spelling).
+ * - Thread-safe (ConcurrentHashMap); instances are immutable and compared by identity.
+ */
+public final class Major {
+
+    /** Spelling → its interned instance. */
+    private static final ConcurrentHashMap<String, Major> BY_SPELLING = new ConcurrentHashMap<>();
+    /** Case-normalized name → code. */
+    private static final ConcurrentHashMap<String, Integer> CODES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_CODE = new AtomicInteger();
+
+    private final String name;
+    private final int code;
+
+    private Major(String name, int code) {
+        this.name = name;
+        this.code = code;
+    }
+
+    /** The shared instance for this exact spelling (created on first use); null for null. */
+    public static Major of(String spelling) {
+        if (spelling == null) return null;
+        Major m = BY_SPELLING.get(spelling);
+        if (m != null) return m;
+        return BY_SPELLING.computeIfAbsent(spelling,
+                s -> new Major(s, CODES.computeIfAbsent(normalize(s), k -> NEXT_CODE.getAndIncrement())));
+    }
+
+    /** Code of the major spelled 'text' in any case, or -1 if no such major exists (or text is null). */
+    public static int codeOf(String text) {
+        if (text == null) return -1;
+        Major m = BY_SPELLING.get(text); // exact spelling: no lower-casing needed
+        if (m != null) return m.code;
+        Integer code = CODES.get(normalize(text));
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Case-normalized form: lower-cased with Locale.ROOT so the result does not depend
+     * on the JVM's default locale (e.g. the Turkish dotless i).
+     */
+    static String normalize(String major) {
+        return major == null ? null : major.toLowerCase(Locale.ROOT);
+    }
+
+    /** The spelling, as given to of(). */
+    public String name() { return name; }
+
+    /** Dense code shared by every spelling of this major (case-insensitive). */
+    public int code() { return code; }
+
+    /** The spelling. */
+    @Override
+    public String toString() { return name; }
+}
@@ -0,0 +1,101 @@
+package com.son.oop.student;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * MajorBucket — one entry of StudentRegistry's major index.
+ *
+ * Holds everything the registry needs per major, updated incrementally on add:
+ * - the ROWS of the students in that major (append order), plus a read-only view
+ *   that reads them from the store on demand
+ * - running GPA sum (count is rows.size()) → average in O(1)
+ * - a bounded RowTopK of the best rows by GPA desc, then name → report leaders in O(1)
+ * - a StudentDistribution (GPA/age sketches and histograms) → percentiles in O(k)
+ *
+ * Rows instead of Student references keep the index small and let the columnar
+ * store avoid creating Student objects until someone reads them.
+ *
+ * The GPA sum is accumulated in insertion order, i.e. the same order the old
+ * report() loop used, so averages are bit-for-bit identical to before.
+ */
+final class MajorBucket {
+
+    /** How many leaders per major report() prints. */
+    static final int REPORT_TOP = 3;
+
+    /** The spelling of the major as first added (used as the display key). */
+    final String major;
+
+    private final StudentStore store;
+    private final IntList rows = new IntList();
+    private final List<Student> view = new StudentsView();
+    private final RowTopK top;
+    private double gpaSum;
+    private final StudentDistribution distribution = new StudentDistribution();
+
+    MajorBucket(String major, StudentStore store) {
+        this.major = major;
+        this.store = store;
+        this.top = new RowTopK(store, REPORT_TOP);
+    }
+
+    /**
+     * Records that the student with this GPA and age was stored at 'row' (already
+     * appended to the store) and updates the running aggregates. O(log REPORT_TOP) plus
+     * O(1) amortized for the distribution; takes the fields rather than a Student so
+     * rebuilding from a store never materializes one.
+     */
+    void add(int row, double gpa, int age) {
+        rows.add(row);
+        gpaSum += gpa;
+        top.offer(row);
+        distribution.add(age, gpa);
+    }
+
+    int count() { return rows.size(); }
+
+    double gpaSum() { return gpaSum; }
+
+    /** Average GPA of this major (0.0 if empty, which never happens for a created bucket). */
+    double averageGpa() { return rows.size() == 0 ? 0.0 : gpaSum / rows.size(); }
+
+    /** The live distribution of this major (copy it before handing it out). */
+    StudentDistribution distribution() { return distribution; }
+
+    /** Row numbers of this major's students, in insertion order. */
+    IntList rows() { return rows; }
+
+    /** Read-only live view of the students in this major. */
+    List<Student> students() { return view; }
+
+    /** The report leaders, best first (at most REPORT_TOP). */
+    List<Student> top() { return top(REPORT_TOP); }
+
+    /**
+     * The best k students of this major, best first.
+     * k ≤ REPORT_TOP reads the maintained heap; larger k selects over the bucket's
+     * rows with a fresh bounded heap: O(m log k) for m students in the major.
+     */
+    List<Student> top(int k) {
+        int[] best;
+        if (k <= REPORT_TOP) {
+            best = top.sortedRows();
+        } else {
+            RowTopK selector = new RowTopK(store, k);
+            selector.offerAll(rows);
+            best = selector.sortedRows();
+        }
+        int n = Math.min(k, best.length);
+        List<Student> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(store.get(best[i]));
+        return out;
+    }
+
+    private final class StudentsView extends AbstractList<Student> implements RandomAccess {
+        @Override public Student get(int index) { return store.get(rows.get(index)); }
+        @Override public int size() { return rows.size(); }
+    }
+}
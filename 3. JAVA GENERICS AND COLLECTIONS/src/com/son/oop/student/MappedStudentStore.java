@@ -0,0 +1,133 @@
+package com.son.oop.student;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MappedStudentStore — a StudentStore whose rows live in a memory-mapped snapshot file.
+ *
+ * - Rows [0, mappedCount) are read straight from the mapped records: id(row) is one
+ *   getInt at a computed offset. The OS pages the file in on demand, so opening a
+ *   snapshot costs nothing per student, and untouched pages never use heap.
+ * - Strings are decoded from the string table the first time they are needed and then
+ *   cached by ref (names repeat; majors repeat a lot), so repeated reads allocate nothing.
+ * - Rows added after opening go to an ordinary ObjectStudentStore "tail": the registry
+ *   stays writable, and a later snapshot write includes both parts.
+ * - pin() shares the mapping and the string/major caches, and pins the tail.
+ *
+ * Caveats:
+ * - Not thread-safe for appends (like the other stores). Concurrent reads of the mapped
+ *   part are fine; the string and major caches may then fill a slot twice (harmless).
+ */
+final class MappedStudentStore implements StudentStore {
+
+    private final ByteBuffer records;
+    private final int mappedCount;
+    private final ByteBuffer strings;
+    private final int stringCount;
+    private final String[] stringCache;
+    private final Major[] majorCache;
+    private final StudentStore tail;
+
+    MappedStudentStore(ByteBuffer records, int mappedCount, ByteBuffer strings, int stringCount) {
+        this(records, mappedCount, strings, stringCount, new String[stringCount], new Major[stringCount],
+                new ObjectStudentStore());
+    }
+
+    private MappedStudentStore(ByteBuffer records, int mappedCount, ByteBuffer strings, int stringCount,
+                               String[] stringCache, Major[] majorCache, StudentStore tail) {
+        this.records = records;
+        this.mappedCount = mappedCount;
+        this.strings = strings;
+        this.stringCount = stringCount;
+        this.stringCache = stringCache;
+        this.majorCache = majorCache;
+        this.tail = tail;
+    }
+
+    @Override public int size() { return mappedCount + tail.size(); }
+
+    @Override public void append(Student s) { tail.append(s); }
+
+    @Override public void ensureCapacity(int rows) { tail.ensureCapacity(rows - mappedCount); }
+
+    @Override
+    public Student get(int row) {
+        if (row >= mappedCount) return tail.get(row - mappedCount);
+        return new Student(id(row), name(row), age(row), majorRef(row), gpa(row));
+    }
+
+    @Override
+    public int id(int row) {
+        return row < mappedCount ? records.getInt(at(row) + StudentSnapshotFile.ID) : tail.id(row - mappedCount);
+    }
+
+    @Override
+    public int age(int row) {
+        return row < mappedCount ? records.getInt(at(row) + StudentSnapshotFile.AGE) : tail.age(row - mappedCount);
+    }
+
+    @Override
+    public double gpa(int row) {
+        return row < mappedCount ? records.getDouble(at(row) + StudentSnapshotFile.GPA) : tail.gpa(row - mappedCount);
+    }
+
+    @Override
+    public String name(int row) {
+        return row < mappedCount ? string(records.getInt(at(row) + StudentSnapshotFile.NAME_REF)) : tail.name(row - mappedCount);
+    }
+
+    @Override
+    public String major(int row) {
+        return row < mappedCount ? string(records.getInt(at(row) + StudentSnapshotFile.MAJOR_REF)) : tail.major(row - mappedCount);
+    }
+
+    /** Interned per string ref, so a scan does one dictionary lookup per distinct major. */
+    @Override
+    public Major majorRef(int row) {
+        if (row >= mappedCount) return tail.majorRef(row - mappedCount);
+        int ref = records.getInt(at(row) + StudentSnapshotFile.MAJOR_REF);
+        if (ref == -1) return null;
+        String s = string(ref); // validates ref
+        Major m = majorCache[ref];
+        if (m == null) majorCache[ref] = m = Major.of(s);
+        return m;
+    }
+
+    /** O(1): the mapped rows never change; the tail is pinned in turn. */
+    @Override
+    public StudentStore pin() {
+        return new MappedStudentStore(records, mappedCount, strings, stringCount, stringCache, majorCache,
+                tail.pin());
+    }
+
+    private int at(int row) {
+        if (row < 0) throw new IndexOutOfBoundsException(row);
+        return row * StudentSnapshotFile.RECORD_BYTES;
+    }
+
+    /**
+     * Decodes (once) string 'ref' of the string table; -1 means null. The offsets come
+     * from the file, so they are checked before use: a corrupt table is an
+     * IllegalStateException (reported as a corrupt snapshot when opening), never a
+     * stray index error or a huge allocation.
+     */
+    private String string(int ref) {
+        if (ref == -1) return null;
+        if (ref < 0 || ref >= stringCount) throw new IllegalStateException("corrupt string ref " + ref);
+        String s = stringCache[ref];
+        if (s == null) {
+            int tableBytes = 4 * (stringCount + 1);
+            int start = strings.getInt(4 * ref);
+            int end = strings.getInt(4 * (ref + 1));
+            if (start < 0 || start > end || end > strings.limit() - tableBytes) {
+                throw new IllegalStateException("corrupt string table");
+            }
+            byte[] bytes = new byte[end - start];
+            strings.get(tableBytes + start, bytes); // absolute bulk get: no position change
+            s = new String(bytes, StandardCharsets.UTF_8);
+            stringCache[ref] = s;
+        }
+        return s;
+    }
+}
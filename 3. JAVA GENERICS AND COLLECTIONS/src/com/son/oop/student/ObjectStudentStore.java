@@ -0,0 +1,76 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * ObjectStudentStore — the default backend: one Student object per row.
+ *
+ * Good when callers mostly want Student objects back (no per-call allocation),
+ * and for small/medium registries. Every field access is a pointer dereference.
+ *
+ * Layout: rows live in fixed-size CHUNKS (arrays of CHUNK rows) reached through a
+ * directory, instead of one ArrayList. Growing allocates a new chunk and, rarely, a
+ * bigger directory; existing chunks never move or get copied. That is what makes
+ * pin() O(1): a pinned store keeps the directory it saw and its row count, and the
+ * slots it can see are never written again.
+ */
+final class ObjectStudentStore implements StudentStore {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK - 1;
+
+    private Student[][] chunks;
+    private int size;
+    /** True for a view made by pin(): read-only. */
+    private final boolean pinned;
+
+    ObjectStudentStore() { this(new Student[4][], 0, false); }
+
+    private ObjectStudentStore(Student[][] chunks, int size, boolean pinned) {
+        this.chunks = chunks;
+        this.size = size;
+        this.pinned = pinned;
+    }
+
+    @Override public int size() { return size; }
+
+    @Override
+    public void append(Student s) {
+        if (pinned) throw new UnsupportedOperationException("pinned store is read-only");
+        int c = size >>> CHUNK_SHIFT;
+        if (c == chunks.length) chunks = Arrays.copyOf(chunks, c * 2);
+        if (chunks[c] == null) chunks[c] = new Student[CHUNK];
+        chunks[c][size & CHUNK_MASK] = s;
+        size++;
+    }
+
+    /** Sizes the chunk directory; chunks themselves are still allocated as rows arrive. */
+    @Override
+    public void ensureCapacity(int rows) {
+        int needed = (rows + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (needed > chunks.length) chunks = Arrays.copyOf(chunks, needed);
+    }
+
+    @Override
+    public Student get(int row) {
+        Objects.checkIndex(row, size);
+        return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    @Override public int id(int row) { return get(row).getId(); }
+
+    @Override public int age(int row) { return get(row).getAge(); }
+
+    @Override public double gpa(int row) { return get(row).getGpa(); }
+
+    @Override public String name(int row) { return get(row).getName(); }
+
+    @Override public String major(int row) { return get(row).getMajor(); }
+
+    @Override public Major majorRef(int row) { return get(row).getMajorRef(); }
+
+    /** O(1): shares the chunks; later appends go to slots (or chunks) the pin never reads. */
+    @Override public StudentStore pin() { return new ObjectStudentStore(chunks, size, true); }
+}
@@ -0,0 +1,202 @@
+package com.son.oop.student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * ParallelStudentQueries — fork/join versions of StudentRegistry's full-scan queries.
+ * Obtain one with registry.parallel() (common pool) or registry.parallel(pool).
+ *
+ * How it works (divide and conquer over row ranges):
+ * - A task covering rows [from, to) splits in half until a range is at most
+ *   SEQUENTIAL_THRESHOLD rows; small ranges are processed by a plain loop.
+ * - Every leaf builds its own PARTIAL result (no shared mutable state, no locks),
+ *   and partial results are MERGED pairwise on the way back up. Merges always put the
+ *   left (lower rows) result first, so orderings match the sequential methods.
+ * - Registries below the threshold run sequentially: forking costs more than it saves.
+ * - Every parallel step runs on the pool this view was created with, never on another.
+ *
+ * What is parallel:
+ * - sortByGpaDescThenName: packed primitive sort keys (see RowSort) built and sorted
+ *   in parallel, then the rows are materialized in parallel.
+ * - groupByMajor: per-range partial groups, merged. Returns a detached, mutable map
+ *   (unlike the registry's live view), e.g. for exporting.
+ * - summary()/report(): recomputes every figure from the raw rows (per-range count,
+ *   GPA sum and top 3 per major, merged) instead of reading the incremental aggregates.
+ *   Useful as an audit of the incremental path, and for the nightly full report.
+ *
+ * Caveats:
+ * - The registry is not thread-safe: do not call add while a parallel query runs.
+ * - Parallel GPA sums are added in a different order than the sequential ones, so
+ *   averages may differ from report() in the last binary digits. Usually that does not
+ *   show in the 2-decimal text, but an average lying right at a rounding boundary
+ *   (x.xx5) can round the other way.
+ */
+public final class ParallelStudentQueries {
+
+    /** Ranges at or below this many rows are processed sequentially. */
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    private final StudentStore store;
+    private final ForkJoinPool pool;
+
+    ParallelStudentQueries(StudentStore store, ForkJoinPool pool) {
+        this.store = store;
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /** Same result as StudentRegistry.sortByGpaDescThenName(), computed in parallel. */
+    public List<Student> sortByGpaDescThenName() {
+        int n = store.size();
+        int[] order = RowSort.byGpaDescThenName(store, n > SEQUENTIAL_THRESHOLD ? pool : null);
+        Student[] all = new Student[n];
+        reduce(0, n, (from, to) -> {
+            for (int i = from; i < to; i++) all[i] = store.get(order[i]);
+            return Boolean.TRUE;
+        }, (a, b) -> a);
+        return new ArrayList<>(Arrays.asList(all));
+    }
+
+    /**
+     * Groups students by major (case-insensitive, first-seen spelling as key,
+     * first-seen order), as new mutable lists.
+     */
+    public Map<String, List<Student>> groupByMajor() {
+        LinkedHashMap<Integer, Group> merged = reduce(0, store.size(), (from, to) -> {
+            LinkedHashMap<Integer, Group> part = new LinkedHashMap<>();
+            for (int row = from; row < to; row++) {
+                Student s = store.get(row);
+                part.computeIfAbsent(majorKey(s.getMajorRef()), k -> new Group(s.getMajor())).students.add(s);
+            }
+            return part;
+        }, (left, right) -> {
+            right.forEach((key, g) -> {
+                Group l = left.get(key);
+                if (l == null) left.put(key, g);
+                else l.students.addAll(g.students);
+            });
+            return left;
+        });
+        Map<String, List<Student>> out = new LinkedHashMap<>();
+        for (Group g : merged.values()) out.put(g.major, g.students);
+        return out;
+    }
+
+    /** Structured report recomputed from every row in parallel (see class notes). */
+    public StudentReport summary() {
+        LinkedHashMap<Integer, Tally> merged = reduce(0, store.size(), (from, to) -> {
+            LinkedHashMap<Integer, Tally> part = new LinkedHashMap<>();
+            for (int row = from; row < to; row++) {
+                Student s = store.get(row);
+                part.computeIfAbsent(majorKey(s.getMajorRef()), k -> new Tally(s.getMajor())).add(s);
+            }
+            return part;
+        }, (left, right) -> {
+            right.forEach((key, t) -> {
+                Tally l = left.get(key);
+                if (l == null) left.put(key, t);
+                else l.merge(t);
+            });
+            return left;
+        });
+        int total = 0;
+        double sum = 0.0;
+        List<StudentReport.MajorSummary> majors = new ArrayList<>(merged.size());
+        for (Tally t : merged.values()) {
+            total += t.count;
+            sum += t.gpaSum;
+            majors.add(new StudentReport.MajorSummary(t.major, t.count, t.gpaSum / t.count, t.top.toSortedList()));
+        }
+        return new StudentReport(total, total == 0 ? 0.0 : sum / total, majors);
+    }
+
+    /** Text report (same layout as StudentRegistry.report()) from summary(). */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new ReportWriter(sb).write(summary());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /** Grouping key: the major's code (case-insensitive), -1 for no major. Small ints box from the cache. */
+    private static Integer majorKey(Major major) {
+        return major == null ? -1 : major.code();
+    }
+
+    // ---- fork/join plumbing ---------------------------------------------------------
+
+    /** Computes a partial result for rows [from, to). */
+    private interface RangeFunction<A> {
+        A apply(int from, int to);
+    }
+
+    private <A> A reduce(int from, int to, RangeFunction<A> leaf, BinaryOperator<A> merge) {
+        if (to - from <= SEQUENTIAL_THRESHOLD) return leaf.apply(from, to);
+        return pool.invoke(new RangeTask<>(from, to, leaf, merge));
+    }
+
+    private static final class RangeTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+        private final RangeFunction<A> leaf;
+        private final BinaryOperator<A> merge;
+
+        RangeTask(int from, int to, RangeFunction<A> leaf, BinaryOperator<A> merge) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) return leaf.apply(from, to);
+            int mid = (from + to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(from, mid, leaf, merge);
+            left.fork();
+            A right = new RangeTask<>(mid, to, leaf, merge).compute();
+            return merge.apply(left.join(), right); // left first: keeps row order
+        }
+    }
+
+    /** Partial grouping of one range. */
+    private static final class Group {
+        final String major;
+        final List<Student> students = new ArrayList<>();
+
+        Group(String major) { this.major = major; }
+    }
+
+    /** Partial per-major aggregates of one range. */
+    private static final class Tally {
+        final String major;
+        final TopK<Student> top = new TopK<>(MajorBucket.REPORT_TOP, StudentRegistry.BY_GPA_DESC_THEN_NAME);
+        int count;
+        double gpaSum;
+
+        Tally(String major) { this.major = major; }
+
+        void add(Student s) {
+            count++;
+            gpaSum += s.getGpa();
+            top.offer(s);
+        }
+
+        /**
+         * Folds in the tally of a LATER range. Its leaders are offered after ours,
+         * so ties still go to the earlier row, as in the sequential report.
+         */
+        void merge(Tally later) {
+            count += later.count;
+            gpaSum += later.gpaSum;
+            for (Student s : later.top.toSortedList()) top.offer(s);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * QuantileSketch — approximate quantiles (p50, p90, p99, ...) of a stream of numbers in
+ * a small, bounded amount of memory. A KLL sketch (Karnin, Lang, Liberty).
+ *
+ * How it works:
+ * - Items live in LEVELS; an item on level h stands for 2^h original values.
+ * - New values go to level 0. When the sketch is over capacity, the lowest full level
+ *   is COMPACTED: sorted, and every other item (starting at a random offset 0 or 1)
+ *   moves one level up with double weight; the rest are dropped. Each compaction halves
+ *   a level while keeping rank errors unbiased.
+ * - Level capacities shrink geometrically (factor 2/3) going down from the top, so
+ *   the total size is about 3k items whatever the stream length.
+ * - quantile(q) sorts the retained items with their weights and returns the item at
+ *   cumulative weight q * count.
+ *
+ * Accuracy: with the default k = 200 the rank error is typically below 1%, i.e.
+ * quantile(0.9) returns a value whose true rank is within about 0.9 ± 0.01. While no
+ * compaction has happened (fewer than ~k values) answers are exact.
+ *
+ * Merging: merge(other) appends the other sketch's levels to ours and compacts. The
+ * result is a sketch of both streams with the same accuracy guarantee, so sketches
+ * built separately (per shard, per thread) can be combined.
+ *
+ * Cost: update is O(1) amortized (an append, plus an occasional sort of a level).
+ *
+ * Caveats:
+ * - Not thread-safe.
+ * - Compaction coins come from a fixed-seed generator, so results are reproducible.
+ * - NaN values are not supported (they would make ordering meaningless).
+ */
+public final class QuantileSketch {
+
+    /** Default accuracy parameter (about 1% rank error). */
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final SplittableRandom coins = new SplittableRandom(0x6B6C6CL);
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    /** Level capacities for the current height, and their sum (recomputed when a level is added). */
+    private int[] capacities;
+    private int totalCapacity;
+    private long count;
+    private double min = Double.NaN, max = Double.NaN;
+
+    public QuantileSketch() { this(DEFAULT_K); }
+
+    /**
+     * Creates a sketch with accuracy parameter k (larger k: more memory, smaller error).
+     * Throws IllegalArgumentException if k < 8.
+     */
+    public QuantileSketch(int k) {
+        if (k < 8) throw new IllegalArgumentException("k must be >= 8");
+        this.k = k;
+        levels[0] = new double[k];
+        capacities = new int[] {k};
+        totalCapacity = k;
+    }
+
+    /** Adds one value. O(1) amortized. Throws IllegalArgumentException for NaN. */
+    public void update(double value) {
+        if (Double.isNaN(value)) throw new IllegalArgumentException("value must not be NaN");
+        append(0, value);
+        count++;
+        if (count == 1 || value < min) min = value;
+        if (count == 1 || value > max) max = value;
+        if (retained >= totalCapacity) compress();
+    }
+
+    /** Adds every value of 'other' to this sketch (other is not changed; it may be this sketch). */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) return;
+        if (other == this) other = copy(); // appending to our own levels would grow the loop bounds below
+        for (int h = 0; h < other.sizes.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) append(h, other.levels[h][i]);
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        while (retained >= totalCapacity) compress();
+    }
+
+    /** Number of values added (including merged ones). */
+    public long count() { return count; }
+
+    /** Smallest value added, or NaN if empty. Exact. */
+    public double min() { return min; }
+
+    /** Largest value added, or NaN if empty. Exact. */
+    public double max() { return max; }
+
+    /**
+     * Approximate q-quantile (0 ≤ q ≤ 1): a value v such that about q * count() values
+     * are ≤ v. quantile(0) and quantile(1) are the exact min and max; NaN if empty.
+     *
+     * Throws IllegalArgumentException if q is outside 0..1.
+     */
+    public double quantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0)) throw new IllegalArgumentException("q must be in 0..1");
+        if (count == 0) return Double.NaN;
+        if (q == 0.0) return min;
+        if (q == 1.0) return max;
+        // (value, weight) pairs, visited in value order through an index sort.
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < sizes.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n++] = 1L << h;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = q * count;
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) return values[i];
+        }
+        return max;
+    }
+
+    /** Copy that evolves independently of this sketch. */
+    public QuantileSketch copy() {
+        QuantileSketch c = new QuantileSketch(k);
+        c.merge(this);
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch[n=" + count + ", p50=" + quantile(0.5) + ", p90=" + quantile(0.9)
+                + ", p99=" + quantile(0.99) + "]";
+    }
+
+    // ---- levels ---------------------------------------------------------------------
+
+    private void append(int level, double value) {
+        while (level >= sizes.length) addLevel();
+        double[] items = levels[level];
+        if (sizes[level] == items.length) levels[level] = items = Arrays.copyOf(items, items.length * 2);
+        items[sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        int h = sizes.length;
+        levels = Arrays.copyOf(levels, h + 1);
+        sizes = Arrays.copyOf(sizes, h + 1);
+        levels[h] = new double[Math.max(MIN_LEVEL_CAPACITY, capacity(h, h + 1))];
+        capacities = new int[h + 1];
+        totalCapacity = 0;
+        for (int i = 0; i <= h; i++) totalCapacity += capacities[i] = capacity(i, h + 1);
+    }
+
+    /** Capacity of level h when there are 'height' levels: k at the top, ×2/3 per level down. */
+    private int capacity(int h, int height) {
+        int depth = height - 1 - h;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    /** Compacts the lowest level that is at or over its capacity. */
+    private void compress() {
+        int height = sizes.length;
+        for (int h = 0; h < height; h++) {
+            if (sizes[h] >= capacities[h]) {
+                compact(h);
+                return;
+            }
+        }
+        compact(height - 1); // rounding: no single level is full, compact the top
+    }
+
+    /** Halves level h: sorted pairs send one (random) member up to level h + 1. */
+    private void compact(int h) {
+        double[] items = levels[h];
+        int size = sizes[h];
+        Arrays.sort(items, 0, size);
+        int pairs = size / 2;
+        int keep = size - 2 * pairs; // 0 or 1: an odd item stays (the largest)
+        int offset = coins.nextBoolean() ? 1 : 0;
+        // Reserve the level above first (append may reallocate arrays).
+        if (h + 1 >= sizes.length) addLevel();
+        for (int i = 0; i < pairs; i++) append(h + 1, items[2 * i + offset]);
+        if (keep == 1) items[0] = items[size - 1];
+        sizes[h] = keep;
+        retained -= size - keep;
+    }
+}
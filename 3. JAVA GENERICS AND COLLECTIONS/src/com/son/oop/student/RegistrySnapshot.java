@@ -0,0 +1,57 @@
+package com.son.oop.student;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * RegistrySnapshot — an immutable view of a StudentRegistry as of one version,
+ * obtained in O(1) with registry.snapshot().
+ *
+ * Multi-version reads on an append-only registry:
+ * - The registry only ever appends, so version v (the state after v adds) is simply
+ *   "rows 0 .. v-1". A snapshot pins the store's current memory and row count
+ *   (StudentStore.pin()); nothing is copied, however large the registry.
+ * - The writer keeps appending into slots and chunks the snapshot never reads, so the
+ *   snapshot can be read from other threads while adds continue, with no lock: e.g.
+ *   take it on the writer thread and submit a report job that uses it.
+ * - Old versions need no explicit release: a snapshot holds only references, and the
+ *   memory the live registry has outgrown is garbage-collected once no snapshot
+ *   refers to it any more.
+ *
+ * Queries on a snapshot scan its rows (the registry's incremental indexes describe the
+ * latest version only): O(n), parallel for large snapshots via queries().
+ */
+public final class RegistrySnapshot {
+
+    private final StudentStore store;
+    private final int size;
+
+    RegistrySnapshot(StudentStore pinned) {
+        this.store = pinned;
+        this.size = pinned.size();
+    }
+
+    /** The version: the number of adds this snapshot reflects. */
+    public int version() { return size; }
+
+    /** Number of students in the snapshot. */
+    public int size() { return size; }
+
+    /** The students of this version, in registry order (an O(1) unmodifiable view). */
+    public List<Student> all() { return store.prefixView(size); }
+
+    /** Full-scan queries (sort, group, report) over this version, on the common pool. */
+    public ParallelStudentQueries queries() { return queries(ForkJoinPool.commonPool()); }
+
+    /** Same as queries(), on the given pool. */
+    public ParallelStudentQueries queries(ForkJoinPool pool) {
+        return new ParallelStudentQueries(store, Objects.requireNonNull(pool, "pool"));
+    }
+
+    /** The report of this version (same layout as StudentRegistry.report()). */
+    public String report() { return queries().report(); }
+
+    @Override
+    public String toString() { return "RegistrySnapshot[version=" + size + "]"; }
+}
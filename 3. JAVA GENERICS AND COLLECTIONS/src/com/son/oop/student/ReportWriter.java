@@ -0,0 +1,124 @@
+package com.son.oop.student;
+
+import java.io.IOException;
+
+/**
+ * ReportWriter — streams a StudentReport as text to any Appendable
+ * (StringBuilder, Writer, PrintStream, ...).
+ *
+ * Why not String.format / Student.toString?
+ * - Every String.format call parses the pattern, creates a Formatter and several
+ *   temporary Strings. For big registries that formatting used to be most of the
+ *   CPU cost of printing a report.
+ * - Here numbers are written digit by digit straight into the output, using a small
+ *   reusable char buffer, so writing a line allocates nothing.
+ *
+ * Output format:
+ * - Identical to StudentRegistry.report() (which now delegates to this class).
+ * - Student lines look like Student.toString(): "101 - An | CS | age 19 | GPA 3.40".
+ * - Decimals always use '.', independent of the default Locale.
+ *
+ * Caveats:
+ * - Not thread-safe: one writer per output.
+ * - IOExceptions from the underlying Appendable are propagated unchanged.
+ */
+public final class ReportWriter {
+
+    /**
+     * Beyond this magnitude, fall back to String.format (never reached with GPA values).
+     * Below it, v*100 + 0.5 is still exactly representable as a double.
+     */
+    private static final double MAX_FAST = 1e13;
+
+    private final Appendable out;
+    private final char[] digits = new char[20]; // enough for any long
+
+    public ReportWriter(Appendable out) {
+        if (out == null) throw new IllegalArgumentException("out is required");
+        this.out = out;
+    }
+
+    /** Writes the whole report. */
+    public void write(StudentReport report) throws IOException {
+        out.append("=== Student Report ===\n");
+        out.append("Total: ");
+        writeLong(report.total());
+        out.append('\n');
+        out.append("Avg GPA (all): ");
+        writeFixed2(report.averageGpa());
+        out.append("\n\n");
+
+        for (StudentReport.MajorSummary m : report.majors()) {
+            out.append("[Major] ").append(m.major()).append(" | Avg GPA: ");
+            writeFixed2(m.averageGpa());
+            out.append('\n');
+            for (int i = 0; i < m.top().size(); i++) {
+                out.append("  #");
+                writeLong(i + 1);
+                out.append(' ');
+                writeStudent(m.top().get(i));
+                out.append('\n');
+            }
+            out.append('\n');
+        }
+    }
+
+    /** Writes one student in the same layout as Student.toString(), without a newline. */
+    public void writeStudent(Student s) throws IOException {
+        writeLong(s.getId());
+        out.append(" - ").append(s.getName())
+                .append(" | ").append(s.getMajor())
+                .append(" | age ");
+        writeLong(s.getAge());
+        out.append(" | GPA ");
+        writeFixed2(s.getGpa());
+    }
+
+    /** Writes a whole number in decimal. */
+    void writeLong(long v) throws IOException {
+        if (v == Long.MIN_VALUE) { // cannot be negated
+            out.append("-9223372036854775808");
+            return;
+        }
+        if (v < 0) {
+            out.append('-');
+            v = -v;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (int) (v % 10));
+            v /= 10;
+        } while (v != 0);
+        for (int i = pos; i < digits.length; i++) out.append(digits[i]);
+    }
+
+    /**
+     * Writes v with exactly two decimals, like String.format("%.2f", v).
+     *
+     * Rounding:
+     * - Java's %.2f rounds the shortest decimal form of the double (what Double.toString
+     *   prints) HALF_UP. So 1.005 prints as "1.01" even though the double is slightly
+     *   below 1.005, while 1.6949999999999998 prints as "1.69".
+     * - Let units = floor(|v| * 100) and b = (units + 0.5) / 100, the rounding boundary.
+     *   The shortest decimal form of |v| is at or above b exactly when |v| is at or above
+     *   the double nearest to b, and (units + 0.5) / 100.0 computes precisely that double
+     *   (IEEE division is correctly rounded). One comparison reproduces %.2f exactly.
+     */
+    void writeFixed2(double v) throws IOException {
+        if (!(Math.abs(v) < MAX_FAST)) { // NaN, infinities, huge values: rare slow path
+            out.append(String.format("%.2f", v));
+            return;
+        }
+        boolean negative = Double.doubleToRawLongBits(v) < 0; // also true for -0.0, as in %.2f
+        double abs = Math.abs(v);
+        long units = (long) Math.floor(abs * 100.0);
+        if (abs >= (units + 0.5) / 100.0) units++;
+
+        if (negative) out.append('-');
+        writeLong(units / 100);
+        out.append('.');
+        int cents = (int) (units % 100);
+        out.append((char) ('0' + cents / 10));
+        out.append((char) ('0' + cents % 10));
+    }
+}
@@ -0,0 +1,264 @@
+package com.son.oop.student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntToLongFunction;
+
+/**
+ * RowSort — sorting helpers that work on ROW numbers of a StudentStore.
+ *
+ * Sorting an int[] of rows instead of a List<Student>:
+ * - needs no Student objects (the columnar store reads GPA/name columns directly)
+ * - produces an index ("sorted order") that can be cached and reused: a page of the
+ *   GPA ranking is then just a slice of this int[].
+ *
+ * Ordering: GPA descending, then name ascending, then row ascending. The last key
+ * makes the order total and equal to a stable sort by (GPA desc, name).
+ *
+ * Packed sort keys (byGpaDescThenName):
+ * - Comparing two students through the comparator costs two virtual GPA reads, a
+ *   Double.compare and, on ties, a String.compareTo — n log n times. Instead, each row
+ *   gets ONE long whose natural order is the ranking:
+ *     [ GPA rank | name rank | row ]
+ *   - GPA rank: dense rank of the row's GPA among the distinct GPAs, descending (equal
+ *     ranks mean equal GPAs by Double.compare). Needs log2(distinct GPAs) bits.
+ *   - name rank: dense rank of the name among the distinct names, found by sorting
+ *     only the distinct names (names repeat, so usually far fewer than n).
+ *   - row: log2(n) bits, so the sorted keys also carry the row (the "payload").
+ * - The long[] is sorted with Arrays.sort (primitive quicksort, no comparator calls),
+ *   and the rows are read back from the low bits. All string comparisons happen while
+ *   ranking the distinct names.
+ * - Fallback when the three ranks do not fit in 63 bits (many millions of distinct
+ *   GPAs and names): the name part becomes the name's first two chars, cut to the bits
+ *   left over. A prefix orders names correctly when it differs and ties when it
+ *   doesn't, so runs of rows tied on GPA + prefix are then re-sorted by comparison.
+ */
+final class RowSort {
+
+    private RowSort() {}
+
+    /** Below this size, merge sort hands over to insertion sort. */
+    private static final int INSERTION_THRESHOLD = 24;
+
+    /** Negative if row a ranks before row b in GPA-desc-then-name order. */
+    static int compareByGpaDescThenName(StudentStore store, int a, int b) {
+        int c = Double.compare(store.gpa(b), store.gpa(a)); // GPA descending
+        if (c != 0) return c;
+        c = store.name(a).compareTo(store.name(b));          // then name ascending
+        return c != 0 ? c : Integer.compare(a, b);           // then insertion order
+    }
+
+    /** All rows of the store, sorted by GPA desc, then name, then row (see class notes). */
+    static int[] byGpaDescThenName(StudentStore store) { return byGpaDescThenName(store, null); }
+
+    /**
+     * Same, with the primitive sorts (and the key building) done in parallel on 'pool'
+     * (sequentially if null). The work runs inside pool.invoke, so the forks of the
+     * Arrays.parallel* calls land in that pool, not the common one. O(n log n)
+     * primitive work plus sorting the distinct names. Names must not be null (as before).
+     */
+    static int[] byGpaDescThenName(StudentStore store, ForkJoinPool pool) {
+        if (pool == null) return byGpaDescThenName(store, false);
+        return pool.invoke(ForkJoinTask.adapt(() -> byGpaDescThenName(store, true)));
+    }
+
+    private static int[] byGpaDescThenName(StudentStore store, boolean parallel) {
+        int n = store.size();
+        int[] rows = new int[n];
+        if (n == 0) return rows;
+        double[] gpas = distinctGpas(store, parallel);
+        int gpaBits = bitsFor(gpas.length);
+        int rowBits = bitsFor(n);
+        NameRanks names = rankNames(store, parallel);
+        int nameBits = bitsFor(names.distinct);
+        boolean exact = gpaBits + nameBits + rowBits <= 63;
+        int prefixBits = Math.min(32, 63 - gpaBits - rowBits); // ≥ 1: both parts ≤ 31 bits
+        IntToLongFunction key = exact
+                ? row -> ((gpaRank(gpas, store.gpa(row)) << nameBits | names.byRow[row]) << rowBits) | row
+                : row -> ((gpaRank(gpas, store.gpa(row)) << prefixBits | namePrefix(store.name(row), prefixBits)) << rowBits) | row;
+        long[] keys = new long[n];
+        if (parallel) {
+            Arrays.parallelSetAll(keys, key::applyAsLong);
+            Arrays.parallelSort(keys);
+        } else {
+            for (int row = 0; row < n; row++) keys[row] = key.applyAsLong(row);
+            Arrays.sort(keys);
+        }
+        long rowMask = (1L << rowBits) - 1;
+        for (int i = 0; i < n; i++) rows[i] = (int) (keys[i] & rowMask);
+        if (exact) return rows;
+        // Fix-up: equal GPA + prefix does not mean equal names.
+        int[] tmp = null;
+        int runStart = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || keys[i] >>> rowBits != keys[runStart] >>> rowBits) {
+                if (i - runStart > 1) {
+                    if (tmp == null) tmp = new int[n];
+                    mergeSort(store, rows, tmp, runStart, i);
+                }
+                runStart = i;
+            }
+        }
+        return rows;
+    }
+
+    /** Descending dense rank of 'gpa' in 'gpas' (the distinct GPAs, ascending). */
+    private static long gpaRank(double[] gpas, double gpa) {
+        return gpas.length - 1 - Arrays.binarySearch(gpas, gpa);
+    }
+
+    /** Top 'bits' bits of the name's first two chars (missing chars count as 0). */
+    private static long namePrefix(String name, int bits) {
+        int len = name.length();
+        long prefix = (len > 0 ? (long) name.charAt(0) << 16 : 0) | (len > 1 ? name.charAt(1) : 0);
+        return prefix >>> (32 - bits);
+    }
+
+    /** Per row, the rank of its name among the 'distinct' names in String order. */
+    private record NameRanks(int[] byRow, int distinct) {}
+
+    /**
+     * One hash lookup per row (name → id in first-seen order), then only the distinct
+     * names are sorted, and ids are replaced by ranks.
+     */
+    private static NameRanks rankNames(StudentStore store, boolean parallel) {
+        int n = store.size();
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        int[] byRow = new int[n];
+        for (int row = 0; row < n; row++) {
+            String name = Objects.requireNonNull(store.name(row), "name");
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = distinct.size();
+                ids.put(name, id);
+                distinct.add(name);
+            }
+            byRow[row] = id;
+        }
+        Integer[] order = new Integer[distinct.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Comparator<Integer> byName = Comparator.comparing(distinct::get);
+        if (parallel) Arrays.parallelSort(order, byName);
+        else Arrays.sort(order, byName);
+        int[] rankOfId = new int[order.length];
+        for (int i = 0; i < order.length; i++) rankOfId[order[i]] = i;
+        for (int row = 0; row < n; row++) byRow[row] = rankOfId[byRow[row]];
+        return new NameRanks(byRow, order.length);
+    }
+
+    /** The distinct GPAs of the store (by Double.compare), ascending. */
+    private static double[] distinctGpas(StudentStore store, boolean parallel) {
+        int n = store.size();
+        double[] g = new double[n];
+        for (int row = 0; row < n; row++) g[row] = store.gpa(row);
+        if (parallel) Arrays.parallelSort(g);
+        else Arrays.sort(g); // the Double.compare order: -0.0 before 0.0, NaN last
+        int d = 1;
+        for (int i = 1; i < n; i++) {
+            if (Double.compare(g[i], g[d - 1]) != 0) g[d++] = g[i];
+        }
+        return Arrays.copyOf(g, d);
+    }
+
+    /** Bits needed to store the values 0 .. count-1. */
+    private static int bitsFor(int count) {
+        return count <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(count - 1);
+    }
+
+    /**
+     * Position of 'row' inside 'sorted' (an array from byGpaDescThenName), or
+     * -(insertion point) - 1 if absent — the same contract as Arrays.binarySearch.
+     * Complexity: O(log n).
+     */
+    static int binarySearch(StudentStore store, int[] sorted, int row) {
+        int lo = 0, hi = sorted.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareByGpaDescThenName(store, sorted[mid], row);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * All rows of the store, sorted by age ascending, then row. Sorts packed
+     * (age, row) longs with Arrays.sort: O(n log n), no comparator calls.
+     */
+    static int[] byAge(StudentStore store) {
+        int n = store.size();
+        long[] keys = new long[n];
+        for (int row = 0; row < n; row++) keys[row] = ((long) store.age(row) << 32) | row;
+        Arrays.sort(keys);
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) rows[i] = (int) keys[i];
+        return rows;
+    }
+
+    /**
+     * First position in 'byAge' (from byAge) whose age is ≥ 'age', or its length.
+     * 'age' is a long so callers can pass hi + 1 for an inclusive upper bound.
+     * Complexity: O(log n).
+     */
+    static int firstAgeAtLeast(StudentStore store, int[] byAge, long age) {
+        int lo = 0, hi = byAge.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (store.age(byAge[mid]) < age) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * First position in a GPA ranking (from byGpaDescThenName) whose GPA is below
+     * 'gpa' (strict) or at most 'gpa' (not strict), by Double.compare, or its length.
+     * The ranking is sorted by GPA descending, so the matching positions form a suffix.
+     * Complexity: O(log n).
+     */
+    static int firstGpaBelow(StudentStore store, int[] byGpa, double gpa, boolean strict) {
+        int lo = 0, hi = byGpa.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Double.compare(store.gpa(byGpa[mid]), gpa);
+            if (strict ? c >= 0 : c > 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void mergeSort(StudentStore store, int[] a, int[] tmp, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = a[i];
+                int j = i - 1;
+                while (j >= from && compareByGpaDescThenName(store, a[j], row) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(store, a, tmp, from, mid);
+        mergeSort(store, a, tmp, mid, to);
+        if (compareByGpaDescThenName(store, a[mid - 1], a[mid]) <= 0) return; // already in order
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = compareByGpaDescThenName(store, tmp[j], tmp[i]) < 0 ? tmp[j++] : tmp[i++];
+        }
+        while (i < mid) a[k++] = tmp[i++];
+        while (j < to) a[k++] = tmp[j++];
+    }
+}
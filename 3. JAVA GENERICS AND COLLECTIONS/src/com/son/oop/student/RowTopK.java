@@ -0,0 +1,105 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+
+/**
+ * RowTopK — selects the k best ROWS of a StudentStore by GPA desc, then name asc,
+ * then row asc (= insertion order), without sorting everything.
+ *
+ * Same idea as TopK, specialised for rows:
+ * - A bounded binary heap of at most k row numbers (an int[]), root = worst kept row.
+ * - offer(row) compares with the root and replaces it only if the row is better:
+ *   O(log k) per row, O(n log k) for a full scan, k ints of extra memory.
+ * - Comparisons read the GPA column first and only look at names on GPA ties, so a
+ *   columnar store never has to build Student objects while selecting.
+ *
+ * The row tie-break makes the order total, and it equals what the stable
+ * sortByGpaDescThenName() produces, so topByGpa(k) is always a prefix of that sort.
+ */
+final class RowTopK {
+
+    private final StudentStore store;
+    private final int[] heap;
+    private int size;
+
+    RowTopK(StudentStore store, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        this.store = store;
+        this.heap = new int[k];
+    }
+
+    int size() { return size; }
+
+    /** Offers a row; O(log k). */
+    void offer(int row) {
+        if (size < heap.length) {
+            heap[size] = row;
+            siftUp(size++);
+        } else if (size > 0 && compare(row, heap[0]) < 0) {
+            heap[0] = row;
+            siftDown(0);
+        }
+    }
+
+    /** Offers every row in [from, to). */
+    void offerRange(int from, int to) {
+        for (int row = from; row < to; row++) offer(row);
+    }
+
+    /** Offers every row of the list. */
+    void offerAll(IntList rows) {
+        for (int i = 0; i < rows.size(); i++) offer(rows.get(i));
+    }
+
+    /**
+     * The kept rows, best first. Sorts a copy of the heap (insertion sort: k is small
+     * compared to n, and this runs once per query). The heap is left intact.
+     */
+    int[] sortedRows() {
+        int[] out = Arrays.copyOf(heap, size);
+        for (int i = 1; i < out.length; i++) {
+            int row = out[i];
+            int j = i - 1;
+            while (j >= 0 && compare(out[j], row) > 0) {
+                out[j + 1] = out[j];
+                j--;
+            }
+            out[j + 1] = row;
+        }
+        return out;
+    }
+
+    /** Negative if row a ranks before row b. */
+    private int compare(int a, int b) {
+        return RowSort.compareByGpaDescThenName(store, a, b);
+    }
+
+    // Heap invariant: a parent ranks after (is worse than) its children → root = worst.
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(heap[i], heap[parent]) <= 0) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int right = left + 1;
+            int worst = right < size && compare(heap[right], heap[left]) > 0 ? right : left;
+            if (compare(heap[worst], heap[i]) <= 0) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+    }
+}
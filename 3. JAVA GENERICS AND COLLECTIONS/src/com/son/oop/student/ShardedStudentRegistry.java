@@ -0,0 +1,338 @@
+package com.son.oop.student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * ShardedStudentRegistry — N StudentRegistry shards behind one registry API, with
+ * students hash-partitioned by id and queries answered by parallel scatter-gather.
+ *
+ * Partitioning:
+ * - shard = mix(id) mod N (the same bit mixer as the id index), so consecutive ids
+ *   spread evenly. findById and add touch exactly one shard.
+ *
+ * Locking (one lock domain per shard):
+ * - Each shard is a plain StudentRegistry guarded by its own ReentrantReadWriteLock.
+ *   Adds to different shards run in parallel; reads of a shard share its read lock.
+ * - A query reads each shard under that shard's read lock, so every per-shard partial
+ *   result is consistent, but shards are read one after the other: with concurrent
+ *   adds a query is not one global point-in-time snapshot.
+ *
+ * Scatter-gather:
+ * - Every query runs one task per shard on the executor (common fork/join pool by
+ *   default), each computing a PARTIAL result, and merges the partials:
+ *   - sorted results (sortByGpaDescThenName, topByGpa, report leaders) are combined by
+ *     a k-way merge of the per-shard sorted runs (a heap of N cursors), O(r log N);
+ *   - filterByMajor / groupByMajor runs are k-way merged by global insertion sequence;
+ *   - counts and GPA sums add up, distributions merge (QuantileSketch, Histogram).
+ * - Every student gets a global sequence number when added. Merges break ties by it,
+ *   so results match a single StudentRegistry fed the same adds in the same order.
+ *
+ * Caveats:
+ * - Report averages sum per-shard GPA sums, so they may differ from a single registry
+ *   in the last binary digits (not in the 2-decimal text, except at exact ties).
+ * - Sequence numbers are ints: at most Integer.MAX_VALUE adds per registry.
+ * - Shards live in one JVM here; the partial/merge split is what would cross a process
+ *   boundary in a distributed version.
+ */
+public class ShardedStudentRegistry {
+
+    private final Shard[] shards;
+    private final Executor executor;
+    private final AtomicInteger nextSeq = new AtomicInteger();
+
+    /** N shards with OBJECTS storage, queries on the common fork/join pool. */
+    public ShardedStudentRegistry(int shardCount) {
+        this(shardCount, StudentRegistry.Storage.OBJECTS, ForkJoinPool.commonPool());
+    }
+
+    /** Throws IllegalArgumentException if shardCount < 1. */
+    public ShardedStudentRegistry(int shardCount, StudentRegistry.Storage storage, Executor executor) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be >= 1");
+        Objects.requireNonNull(storage, "storage");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard(new StudentRegistry(storage));
+    }
+
+    public int shardCount() { return shards.length; }
+
+    /** Total number of students (sum of the shard sizes). */
+    public int size() {
+        int n = 0;
+        for (Shard s : shards) n += s.read(sh -> sh.seqs.size());
+        return n;
+    }
+
+    /**
+     * Adds a student to its shard. Safe to call from many threads; only that shard is
+     * locked. Throws like StudentRegistry.add (duplicate id → IllegalArgumentException).
+     */
+    public void add(Student s) {
+        Objects.requireNonNull(s, "student");
+        Shard shard = shardOf(s.getId());
+        shard.lock.writeLock().lock();
+        try {
+            shard.registry.add(s);
+            shard.seqs.add(nextSeq.getAndIncrement());
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch, all-or-nothing: the write locks of the shards involved are taken
+     * in shard order (no deadlock between concurrent batches), ids are validated, then
+     * each shard gets its part through StudentRegistry.addAll. Sequence numbers follow
+     * the batch order.
+     */
+    public void addAll(Collection<? extends Student> students) {
+        List<Student> batch = new ArrayList<>(Objects.requireNonNull(students, "students"));
+        List<List<Student>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) parts.add(new ArrayList<>());
+        IntIntHashMap seen = new IntIntHashMap(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Student s = Objects.requireNonNull(batch.get(i), "student");
+            if (seen.putIfAbsent(s.getId(), i) != IntIntHashMap.NO_VALUE) {
+                throw new IllegalArgumentException("duplicate student id: " + s.getId());
+            }
+            parts.get(shardIndex(s.getId())).add(s);
+        }
+        List<Shard> locked = new ArrayList<>();
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                if (parts.get(i).isEmpty()) continue;
+                shards[i].lock.writeLock().lock();
+                locked.add(shards[i]);
+            }
+            for (int i = 0; i < shards.length; i++) {
+                for (Student s : parts.get(i)) {
+                    if (shards[i].registry.findById(s.getId()).isPresent()) {
+                        throw new IllegalArgumentException("duplicate student id: " + s.getId());
+                    }
+                }
+            }
+            int base = nextSeq.getAndAdd(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Shard shard = shardOf(batch.get(i).getId());
+                shard.seqs.add(base + i);
+            }
+            for (int i = 0; i < shards.length; i++) {
+                if (!parts.get(i).isEmpty()) shards[i].registry.addAll(parts.get(i));
+            }
+        } finally {
+            for (Shard s : locked) s.lock.writeLock().unlock();
+        }
+    }
+
+    /** Looks in the one shard that can hold this id. */
+    public Optional<Student> findById(int id) {
+        return shardOf(id).read(sh -> sh.registry.findById(id));
+    }
+
+    /** Students of this major (case-insensitive), in insertion order, as a new list. */
+    public List<Student> filterByMajor(String major) {
+        if (major == null) return new ArrayList<>();
+        List<Run> runs = scatter(sh -> sh.run(sh.registry.filterByMajor(major)));
+        return mergeRuns(runs, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Groups by major like StudentRegistry.groupByMajor (first-seen spelling as key,
+     * first-seen order, insertion order inside), as a new mutable map.
+     */
+    public Map<String, List<Student>> groupByMajor() {
+        List<List<MajorPart>> partials = scatter(sh -> sh.majorParts(true));
+        Map<String, List<Student>> out = new LinkedHashMap<>();
+        for (MajorGroup g : gather(partials)) out.put(g.major, mergeRuns(g.runs, null, Integer.MAX_VALUE));
+        return out;
+    }
+
+    /** All students sorted by GPA desc, then name: per-shard sorts in parallel, then a k-way merge. */
+    public List<Student> sortByGpaDescThenName() {
+        List<Run> runs = scatter(sh -> sh.run(sh.registry.sortByGpaDescThenName()));
+        return mergeRuns(runs, StudentRegistry.BY_GPA_DESC_THEN_NAME, Integer.MAX_VALUE);
+    }
+
+    /** The k best students overall: each shard's top k, k-way merged, first k kept. */
+    public List<Student> topByGpa(int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        List<Run> runs = scatter(sh -> sh.run(sh.registry.topByGpa(k)));
+        return mergeRuns(runs, StudentRegistry.BY_GPA_DESC_THEN_NAME, k);
+    }
+
+    /** The k best students of one major (case-insensitive). */
+    public List<Student> topByGpa(String major, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        if (major == null) return new ArrayList<>();
+        List<Run> runs = scatter(sh -> sh.run(sh.registry.topByGpa(major, k)));
+        return mergeRuns(runs, StudentRegistry.BY_GPA_DESC_THEN_NAME, k);
+    }
+
+    /** Structured report over all shards (same shape and order as StudentRegistry.summary()). */
+    public StudentReport summary() {
+        List<List<MajorPart>> partials = scatter(sh -> sh.majorParts(false));
+        int total = 0;
+        double sum = 0.0;
+        List<StudentReport.MajorSummary> majors = new ArrayList<>();
+        for (MajorGroup g : gather(partials)) {
+            total += g.count;
+            sum += g.gpaSum;
+            List<Student> top = mergeRuns(g.runs, StudentRegistry.BY_GPA_DESC_THEN_NAME, MajorBucket.REPORT_TOP);
+            majors.add(new StudentReport.MajorSummary(g.major, g.count, g.gpaSum / g.count, top));
+        }
+        return new StudentReport(total, total == 0 ? 0.0 : sum / total, majors);
+    }
+
+    /** Same text layout as StudentRegistry.report(). */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new ReportWriter(sb).write(summary());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /** GPA/age distribution of all students: the shards' distributions, merged. */
+    public StudentDistribution distribution() {
+        StudentDistribution all = new StudentDistribution();
+        for (StudentDistribution d : scatter(sh -> sh.registry.distribution())) all.merge(d);
+        return all;
+    }
+
+    // ---- partitioning and scatter-gather --------------------------------------------
+
+    private int shardIndex(int id) {
+        return Math.floorMod(IntIntHashMap.mix(id), shards.length);
+    }
+
+    private Shard shardOf(int id) { return shards[shardIndex(id)]; }
+
+    /** Runs task on every shard (under its read lock) in parallel; results in shard order. */
+    private <T> List<T> scatter(Function<Shard, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) futures.add(CompletableFuture.supplyAsync(() -> shard.read(task), executor));
+        List<T> out = new ArrayList<>(shards.length);
+        for (CompletableFuture<T> f : futures) {
+            try {
+                out.add(f.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        return out;
+    }
+
+    /** Groups per-shard major parts by normalized major, ordered by first global insertion. */
+    private static Collection<MajorGroup> gather(List<List<MajorPart>> partials) {
+        Map<String, MajorGroup> groups = new HashMap<>();
+        for (List<MajorPart> parts : partials) {
+            for (MajorPart p : parts) {
+                MajorGroup g = groups.computeIfAbsent(p.key, k -> new MajorGroup());
+                if (g.runs.isEmpty() || p.firstSeq < g.firstSeq) {
+                    g.firstSeq = p.firstSeq;
+                    g.major = p.major;
+                }
+                g.count += p.count;
+                g.gpaSum += p.gpaSum;
+                g.runs.add(p.run);
+            }
+        }
+        List<MajorGroup> ordered = new ArrayList<>(groups.values());
+        ordered.sort(Comparator.comparingInt(g -> g.firstSeq));
+        return ordered;
+    }
+
+    /**
+     * K-way merge of sorted runs: a heap holds one cursor per non-empty run, ordered by
+     * 'order' (null: insertion order only) and then global sequence, so equal elements
+     * come out in insertion order. Stops after 'limit' elements. O(r log N).
+     */
+    private static List<Student> mergeRuns(List<Run> runs, Comparator<Student> order, int limit) {
+        int total = 0;
+        for (Run r : runs) total += r.students.size();
+        List<Student> out = new ArrayList<>(Math.min(total, limit));
+        PriorityQueue<int[]> heap = new PriorityQueue<>((a, b) -> { // {run, position}
+            Run ra = runs.get(a[0]), rb = runs.get(b[0]);
+            if (order != null) {
+                int c = order.compare(ra.students.get(a[1]), rb.students.get(b[1]));
+                if (c != 0) return c;
+            }
+            return Integer.compare(ra.seqs[a[1]], rb.seqs[b[1]]);
+        });
+        for (int i = 0; i < runs.size(); i++) {
+            if (!runs.get(i).students.isEmpty()) heap.add(new int[] {i, 0});
+        }
+        while (!heap.isEmpty() && out.size() < limit) {
+            int[] cursor = heap.poll();
+            Run run = runs.get(cursor[0]);
+            out.add(run.students.get(cursor[1]));
+            if (++cursor[1] < run.students.size()) heap.add(cursor);
+        }
+        return out;
+    }
+
+    // ---- per-shard state and partial results ----------------------------------------
+
+    private static final class Shard {
+        final StudentRegistry registry;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        /** Global sequence number of each row of 'registry' (row → seq). */
+        final IntList seqs = new IntList();
+
+        Shard(StudentRegistry registry) { this.registry = registry; }
+
+        <T> T read(Function<Shard, T> task) {
+            lock.readLock().lock();
+            try {
+                return task.apply(this);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /** A partial result tagged with each student's global sequence number. */
+        Run run(List<Student> students) {
+            int[] s = new int[students.size()];
+            for (int i = 0; i < s.length; i++) s[i] = seqs.get(registry.rowOf(students.get(i).getId()));
+            return new Run(students, s);
+        }
+
+        /** Per-major partials: count, GPA sum, first seq, and either all students or the leaders. */
+        List<MajorPart> majorParts(boolean allStudents) {
+            List<MajorPart> parts = new ArrayList<>();
+            for (MajorBucket b : registry.majorBuckets()) {
+                List<Student> students = allStudents ? new ArrayList<>(b.students()) : b.top();
+                parts.add(new MajorPart(StudentRegistry.normalizeMajor(b.major), b.major,
+                        seqs.get(b.rows().get(0)), b.count(), b.gpaSum(), run(students)));
+            }
+            return parts;
+        }
+    }
+
+    /** Students of one shard, sorted by the query's order, with their global seqs. */
+    private record Run(List<Student> students, int[] seqs) {}
+
+    /** One shard's share of one major. */
+    private record MajorPart(String key, String major, int firstSeq, int count, double gpaSum, Run run) {}
+
+    /** All shards' shares of one major, being merged. */
+    private static final class MajorGroup {
+        String major;
+        int firstSeq;
+        int count;
+        double gpaSum;
+        final List<Run> runs = new ArrayList<>();
+    }
+}
@@ -1,7 +1,5 @@
 package com.son.oop.student;
 
-import java.util.Objects;
-
 /**
  * Student is a small, immutable domain model.
  *
@@ -11,6 +9,9 @@ import java.util.Objects;
  *   That means two Student objects with the same id are considered equal,
  *   even if name, age, major, or gpa differ.
  * - toString prints a compact, human-friendly line for logs and debugging.
+ * - The major is stored as a reference to the shared Major instance for its spelling
+ *   (see Major), not as a String of its own: students of one major share one object,
+ *   and registries compare majors by Major.code().
  *
  * When to use:
  * - Safe as a value placed in collections (List, Set, Map).
@@ -33,8 +34,8 @@ public class Student {
     /** Age in years. Not used for equality. */
     private final int age;
 
-    /** Major (e.g., "CS", "Math"). Not used for equality. */
-    private final String major;
+    /** Major (e.g., "CS", "Math"), interned; null if none. Not used for equality. */
+    private final Major major;
 
     /** Grade Point Average, typically on a 0.0–4.0 scale. Not used for equality. */
     private final double gpa;
@@ -49,6 +50,16 @@ public class Student {
      * - gpa within 0.0..4.0 (or your system's scale)
      */
     public Student(int id, String name, int age, String major, double gpa) {
+        this(id, name, age, Major.of(major), gpa);
+    }
+
+    /**
+     * Same as above, with an already interned major (no dictionary lookup); used by the
+     * stores. Package-private so that code outside this package never sees two
+     * candidates: there, new Student(..., null, ...) means the String constructor.
+     * Inside the package that call is ambiguous; write (String) null or (Major) null.
+     */
+    Student(int id, String name, int age, Major major, double gpa) {
         this.id = id;
         this.name = name;
         this.age = age;
@@ -66,7 +77,10 @@ public class Student {
     public int getAge() { return age; }
 
     /** Returns the student's major. May be null if caller passed null. */
-    public String getMajor() { return major; }
+    public String getMajor() { return major == null ? null : major.name(); }
+
+    /** Returns the student's interned Major (spelling + code). May be null. */
+    public Major getMajorRef() { return major; }
 
     /** Returns the student's GPA. */
     public double getGpa() { return gpa; }
@@ -104,10 +118,14 @@ public class Student {
      *
      * Contract:
      * - If two objects are equal according to equals, they must have the same hash code.
-     * - Using Objects.hash(id) is simple and clear; it is fine for small models.
+     * - Objects.hash(id) would box the id and allocate a varargs array on every call,
+     *   which adds up with millions of students in hash-based collections. Instead the
+     *   id is mixed with plain int arithmetic (the same mixer as the registry's id index),
+     *   so sequential ids spread over all bits and nothing is allocated.
+     *   For very large id-keyed sets and maps, see StudentSet / StudentMap.
      */
     @Override
-    public int hashCode() { return Objects.hash(id); }
+    public int hashCode() { return IntIntHashMap.mix(id); }
 }
 
 /*
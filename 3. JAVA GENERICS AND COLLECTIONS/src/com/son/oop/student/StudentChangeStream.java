@@ -0,0 +1,266 @@
+package com.son.oop.student;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StudentChangeStream — a Flow.Publisher of the students added to a registry, so
+ * downstream caches can keep derived views current incrementally instead of polling
+ * all() and diffing (which copies the whole registry every time).
+ *
+ * Usage (see StudentRegistry.changes()):
+ *   registry.changes().subscribe(mySubscriber);      // events for every later add
+ *   List<Student> base = registry.all();             // initial state, same thread
+ *
+ * Delivery:
+ * - Each subscription owns a bounded RING BUFFER. The registry's add puts the new
+ *   student into every subscriber's ring (one array write + one volatile write) and
+ *   returns: add never waits for a subscriber. A bulk add (addAll, one importCsv
+ *   chunk) takes ONE slot holding its whole batch, which is delivered student by
+ *   student; so the ring size counts add calls, not students.
+ * - Events are delivered on the executor (common fork/join pool by default), in add
+ *   order, at most as many as the subscriber has request()ed (backpressure). Signals to
+ *   one subscriber never overlap; onSubscribe comes first, on the executor as well.
+ * - Events are students added AFTER subscribe returns. Subscribing and reading all()
+ *   on the writer thread, with no add in between, gives a gap-free starting point.
+ *
+ * Slow subscribers:
+ * - When a subscriber's ring is full (it requested too little, or its onNext is slower
+ *   than adds), that subscription FAILS: undelivered events are dropped and it gets
+ *   onError(IllegalStateException) instead of blocking add or growing without bound.
+ *   The consumer rebuilds from all() and subscribes again.
+ * - Choose the capacity for the longest burst of add calls a subscriber must absorb.
+ *
+ * Caveats:
+ * - Publishing is single-writer, like the registry itself: adds must not run
+ *   concurrently (the registry is not thread-safe either). subscribe/cancel/request may
+ *   be called from any thread.
+ * - A subscriber whose onNext throws is cancelled.
+ */
+public final class StudentChangeStream implements Flow.Publisher<Student>, AutoCloseable {
+
+    /** Default ring capacity per subscriber (add calls; a bulk add is one). */
+    public static final int DEFAULT_BUFFER = 1024;
+
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /** Delivers on the common fork/join pool with DEFAULT_BUFFER events per subscriber. */
+    public StudentChangeStream() { this(ForkJoinPool.commonPool(), DEFAULT_BUFFER); }
+
+    /** Throws IllegalArgumentException if bufferCapacity < 1. */
+    public StudentChangeStream(Executor executor, int bufferCapacity) {
+        if (bufferCapacity < 1) throw new IllegalArgumentException("bufferCapacity must be >= 1");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /** Subscribes with this stream's default ring capacity. */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Student> subscriber) {
+        subscribe(subscriber, bufferCapacity);
+    }
+
+    /**
+     * Subscribes with a ring of (at least) 'capacity' events; rounded up to a power of
+     * two. On a closed stream the subscriber is completed right away.
+     * Throws IllegalArgumentException if capacity < 1.
+     */
+    public void subscribe(Flow.Subscriber<? super Student> subscriber, int capacity) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        Subscription s = new Subscription(subscriber, capacity);
+        subscriptions.add(s);
+        if (closed) s.done = true; // close() may have missed it; completing twice is harmless
+        s.signal();
+    }
+
+    /** Number of live subscriptions. */
+    public int subscriberCount() { return subscriptions.size(); }
+
+    /**
+     * Completes every subscriber (after the events already buffered for it) and stops
+     * publishing. Later subscribers are completed immediately. Idempotent.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscription s : subscriptions) {
+            s.done = true;
+            s.signal();
+        }
+    }
+
+    /** True when an add has someone to publish to (lets the registry skip building events). */
+    boolean hasSubscribers() { return !closed && !subscriptions.isEmpty(); }
+
+    /** Offers one added student to every subscriber. Never blocks; O(subscribers). */
+    void publish(Student s) {
+        if (closed) return;
+        for (Subscription sub : subscriptions) sub.offer(s);
+    }
+
+    /**
+     * Offers a bulk add to every subscriber as one ring slot. The list is shared, not
+     * copied: the caller must never change it afterwards. Never blocks; O(subscribers).
+     */
+    void publishAll(List<Student> batch) {
+        if (closed || batch.isEmpty()) return;
+        for (Subscription sub : subscriptions) sub.offer(batch);
+    }
+
+    // ---- one subscription -----------------------------------------------------------
+
+    /**
+     * Single-producer / single-consumer ring: the publishing thread writes a slot and
+     * then the volatile 'tail'; the drain task reads 'tail', takes the slot, clears it
+     * and then writes the volatile 'head'. Each counter has exactly one writer.
+     * A slot holds a Student or a List<Student> (bulk add); 'offset' is how much of the
+     * list at 'head' has been delivered, so demand can stop in the middle of a batch.
+     *
+     * Draining uses a work-in-progress counter: whoever raises it from 0 schedules one
+     * drain task, and that task loops until every signal it missed is handled, so at most
+     * one task per subscription runs at a time (signals are serial).
+     */
+    private final class Subscription implements Flow.Subscription {
+        final Flow.Subscriber<? super Student> subscriber;
+        final Object[] ring;
+        final int mask;
+        volatile long head, tail;
+        final AtomicLong requested = new AtomicLong();
+        final AtomicInteger wip = new AtomicInteger();
+        volatile boolean done, cancelled;
+        volatile Throwable failure;
+        boolean started; // only touched by the drain task
+        int offset;      // same
+
+        Subscription(Flow.Subscriber<? super Student> subscriber, int capacity) {
+            this.subscriber = subscriber;
+            int size = 1;
+            while (size < capacity && size < 1 << 30) size <<= 1;
+            this.ring = new Object[size];
+            this.mask = size - 1;
+        }
+
+        /** Called by the publishing thread only; e is a Student or a List<Student>. */
+        void offer(Object e) {
+            if (failure != null || cancelled) return;
+            long t = tail;
+            if (t - head == ring.length) {
+                fail(new IllegalStateException("subscriber fell behind: buffer of " + ring.length + " events full"));
+                return;
+            }
+            ring[(int) t & mask] = e;
+            tail = t + 1;
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be > 0, was " + n)); // Reactive Streams §3.9
+                return;
+            }
+            requested.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            signal(); // the drain task clears the ring
+        }
+
+        void fail(Throwable t) {
+            if (failure == null) failure = t;
+            subscriptions.remove(this);
+            signal();
+        }
+
+        void signal() {
+            if (wip.getAndIncrement() == 0) executor.execute(this::drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                if (!started) {
+                    started = true;
+                    try {
+                        subscriber.onSubscribe(this);
+                    } catch (Throwable t) {
+                        cancel();
+                    }
+                }
+                long r = requested.get();
+                long h = head;
+                long emitted = 0;
+                while (true) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    Throwable f = failure;
+                    if (f != null) {
+                        cancelled = true;
+                        clear();
+                        subscriber.onError(f);
+                        return;
+                    }
+                    long t = tail;
+                    if (h == t) {
+                        if (done) {
+                            cancel();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+                    if (emitted == r) break;
+                    int slot = (int) h & mask;
+                    Student s;
+                    if (ring[slot] instanceof List<?> batch) {
+                        s = (Student) batch.get(offset);
+                        if (++offset == batch.size()) {
+                            offset = 0;
+                            ring[slot] = null;
+                            head = ++h;
+                        }
+                    } else {
+                        s = (Student) ring[slot];
+                        ring[slot] = null;
+                        head = ++h;
+                    }
+                    emitted++;
+                    try {
+                        subscriber.onNext(s);
+                    } catch (Throwable e) {
+                        cancel();
+                        clear();
+                        return;
+                    }
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) requested.addAndGet(-emitted);
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+
+        /** Drops undelivered events so a dead subscription holds no students. */
+        private void clear() {
+            long t = tail;
+            for (long h = head; h != t; h++) ring[(int) h & mask] = null;
+            head = t;
+            offset = 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.son.oop.student;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * StudentChangeStreamDemo — checks that a default changes() subscription survives bulk loads.
+ *
+ * What it does:
+ *  1) Subscribes with request(Long.MAX_VALUE) and the default buffer (DEFAULT_BUFFER adds).
+ *  2) On the writer thread: addAll of far more students than the buffer holds, a few
+ *     single adds, then importCsv of several CSV_CHUNK chunks.
+ *  3) Closes the stream and checks that the subscriber got onComplete (no onError) and
+ *     every added student exactly once, in add order.
+ *
+ * Run it with no arguments; it prints "OK" or fails with IllegalStateException.
+ * Optional arg: students in the addAll (default 50000).
+ */
+public class StudentChangeStreamDemo {
+
+    public static void main(String[] args) throws Exception {
+        int bulk = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        StudentRegistry reg = new StudentRegistry();
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        reg.changes().subscribe(new Flow.Subscriber<Student>() {
+            @Override public void onSubscribe(Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+            @Override public void onNext(Student s) { received.add(s.getId()); }
+            @Override public void onError(Throwable t) { finished.completeExceptionally(t); }
+            @Override public void onComplete() { finished.complete(null); }
+        });
+
+        List<Student> batch = new ArrayList<>();
+        for (int id = 0; id < bulk; id++) batch.add(student(id));
+        reg.addAll(batch);
+        for (int id = bulk; id < bulk + 10; id++) reg.add(student(id));
+        int imported = 3 * StudentRegistry.CSV_CHUNK + 17;
+        StudentRegistry source = new StudentRegistry();
+        for (int id = bulk + 10; id < bulk + 10 + imported; id++) source.add(student(id));
+        StringWriter csv = new StringWriter();
+        source.exportCsv(csv);
+        reg.importCsv(new StringReader(csv.toString()));
+        reg.changes().close();
+
+        try {
+            finished.get(60, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("subscription failed", e.getCause());
+        }
+        int total = bulk + 10 + imported;
+        check(reg.all().size() == total, "registry size " + reg.all().size());
+        check(received.size() == total, "received " + received.size() + " of " + total);
+        for (int i = 0; i < total; i++) check(received.get(i) == i, "event " + i + " is id " + received.get(i));
+        System.out.println("OK");
+    }
+
+    private static Student student(int id) {
+        return new Student(id, "S" + id, 18 + id % 8, id % 3 == 0 ? "CS" : "Math", (id * 37 % 401) / 100.0);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) throw new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,246 @@
+package com.son.oop.student;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * StudentCsvReader — reads students from CSV (the format of StudentCsvWriter), one
+ * record at a time, in constant memory.
+ *
+ * How it parses:
+ * - Characters are read from the Reader in CHUNK_CHARS blocks into one CharBuffer (over
+ *   a char[] the parser indexes directly), and a hand-written state machine splits
+ *   fields straight out of it: no readLine, no String.split/regex, no String per
+ *   line or per field.
+ * - Each field is collected into a reusable StringBuilder. id, age and gpa are parsed
+ *   from it directly; only names become Strings. Majors are resolved to their interned
+ *   Major through a small cache, so all "CS" rows share one object and the field text
+ *   is not copied into a String again.
+ * - Quoting follows RFC 4180: a quoted field may contain commas, doubled quotes and
+ *   line breaks (so a record can span lines). CRLF and LF line ends are both accepted.
+ * - An empty unquoted name/major reads as null, a quoted "" as the empty string.
+ * - Blank lines are skipped.
+ *
+ * Errors: malformed input (wrong header, wrong field count, bad number, stray quote,
+ * unterminated quote) is reported as an IOException naming the record number
+ * (the header is record 1).
+ *
+ * Caveats:
+ * - Not thread-safe: one reader per input.
+ * - The Reader is read in blocks itself; wrapping it in a BufferedReader is not needed.
+ */
+public final class StudentCsvReader implements Closeable {
+
+    private static final int CHUNK_CHARS = 1 << 16;
+    private static final int FIELDS = 5;
+    private static final int MAJOR_CACHE = 64;
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+
+    /** Exact powers of ten: 10^k is exactly representable as a double for k ≤ 22. */
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1.0;
+        for (int k = 1; k < POW10.length; k++) POW10[k] = POW10[k - 1] * 10.0;
+    }
+
+    private final Reader in;
+    private final char[] chars = new char[CHUNK_CHARS];
+    private final CharBuffer buf = CharBuffer.wrap(chars);
+    private int pos, limit; // unread chars are chars[pos, limit)
+    private int pushedBack = NONE;
+    private boolean headerRead;
+    private long record;
+
+    private final StringBuilder[] fields = new StringBuilder[FIELDS];
+    private final boolean[] quoted = new boolean[FIELDS];
+    private final Major[] majors = new Major[MAJOR_CACHE];
+    private int majorCount;
+
+    public StudentCsvReader(Reader in) {
+        this.in = Objects.requireNonNull(in, "in");
+        for (int i = 0; i < FIELDS; i++) fields[i] = new StringBuilder(32);
+    }
+
+    /**
+     * Returns the next student, or null at the end of the input.
+     * The header line is checked and skipped on the first call.
+     */
+    public Student read() throws IOException {
+        if (!headerRead) {
+            headerRead = true;
+            if (!readRecord()) return null; // empty input
+            checkHeader();
+        }
+        if (!readRecord()) return null;
+        return new Student(
+                parseInt(0, "id"),
+                text(1),
+                parseInt(2, "age"),
+                major(3),
+                parseDouble(4));
+    }
+
+    @Override
+    public void close() throws IOException { in.close(); }
+
+    // ---- splitting ------------------------------------------------------------------
+
+    /** Reads the next non-blank record into 'fields'. Returns false at end of input. */
+    private boolean readRecord() throws IOException {
+        int c;
+        do {
+            c = next();
+            if (c == EOF) return false;
+        } while (c == '\n' || c == '\r'); // blank lines
+        record++;
+        pushedBack = c;
+
+        int count = 0;
+        while (true) {
+            if (count == FIELDS) throw error("more than " + FIELDS + " fields");
+            StringBuilder field = fields[count];
+            field.setLength(0);
+            c = next();
+            quoted[count] = c == '"';
+            if (c == '"') {
+                while (true) {
+                    c = next();
+                    if (c == EOF) throw error("unterminated quoted field");
+                    if (c == '"') {
+                        c = next();
+                        if (c != '"') break; // closing quote; c is what follows it
+                    }
+                    field.append((char) c);
+                }
+                if (c != ',' && c != '\n' && c != '\r' && c != EOF) throw error("text after closing quote");
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    if (c == '"') throw error("quote inside unquoted field");
+                    field.append((char) c);
+                    c = next();
+                }
+            }
+            count++;
+            if (c == ',') continue;
+            if (c == '\r') {
+                int d = next();
+                if (d != '\n') pushedBack = d;
+            }
+            break;
+        }
+        if (count != FIELDS) throw error("expected " + FIELDS + " fields, found " + count);
+        return true;
+    }
+
+    /** Next char, refilling the buffer from the Reader as needed; EOF at the end. */
+    private int next() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (pos == limit) {
+            buf.clear();
+            int n;
+            do {
+                n = in.read(buf);
+            } while (n == 0);
+            if (n < 0) return EOF;
+            pos = 0;
+            limit = n;
+        }
+        return chars[pos++]; // plain array access: this is the hot loop
+    }
+
+    // ---- converting -----------------------------------------------------------------
+
+    private void checkHeader() throws IOException {
+        String[] expected = StudentCsvWriter.HEADER.split(",");
+        for (int i = 0; i < FIELDS; i++) {
+            if (!fields[i].toString().trim().equalsIgnoreCase(expected[i])) {
+                throw error("expected header " + StudentCsvWriter.HEADER);
+            }
+        }
+    }
+
+    /** Name: null for an empty unquoted field. */
+    private String text(int i) {
+        return fields[i].length() == 0 && !quoted[i] ? null : fields[i].toString();
+    }
+
+    /** Major: null for an empty unquoted field; repeated spellings hit the cache. */
+    private Major major(int i) {
+        StringBuilder f = fields[i];
+        if (f.length() == 0 && !quoted[i]) return null;
+        for (int j = 0; j < majorCount; j++) {
+            if (majors[j].name().contentEquals(f)) return majors[j];
+        }
+        Major m = Major.of(f.toString());
+        if (majorCount < MAJOR_CACHE) majors[majorCount++] = m;
+        return m;
+    }
+
+    private int parseInt(int i, String column) throws IOException {
+        StringBuilder f = fields[i];
+        int n = f.length();
+        int at = 0;
+        boolean negative = n > 0 && f.charAt(0) == '-';
+        if (negative || (n > 0 && f.charAt(0) == '+')) at++;
+        if (at == n || n - at > 10) throw error("bad " + column + " '" + f + "'");
+        long v = 0;
+        for (; at < n; at++) {
+            char c = f.charAt(at);
+            if (c < '0' || c > '9') throw error("bad " + column + " '" + f + "'");
+            v = v * 10 + (c - '0');
+        }
+        if (negative) v = -v;
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) throw error(column + " out of range '" + f + "'");
+        return (int) v;
+    }
+
+    /**
+     * Fast path for plain decimals ("3.45", "-0.5", "4"): with at most 15 significant
+     * digits the digits form an exact long m, and m / 10^k is then one correctly rounded
+     * IEEE division — the same double Double.parseDouble returns. Anything else
+     * (exponents, NaN, long mantissas) goes through Double.parseDouble.
+     */
+    private double parseDouble(int i) throws IOException {
+        StringBuilder f = fields[i];
+        int n = f.length();
+        int at = 0;
+        boolean negative = n > 0 && f.charAt(0) == '-';
+        if (negative) at++;
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean dot = false, plain = at < n;
+        for (; at < n && plain; at++) {
+            char c = f.charAt(at);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+                if (dot) fractionDigits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                plain = false;
+            }
+        }
+        if (plain && digits <= 15 && fractionDigits < POW10.length && (n - (negative ? 1 : 0)) > (dot ? 1 : 0)) {
+            double v = mantissa / POW10[fractionDigits];
+            return negative ? -v : v;
+        }
+        try {
+            return Double.parseDouble(f.toString());
+        } catch (NumberFormatException e) {
+            throw error("bad gpa '" + f + "'");
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException("CSV record " + record + ": " + message);
+    }
+}
@@ -0,0 +1,123 @@
+package com.son.oop.student;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * StudentCsvWriter — streams students as CSV (RFC 4180) to a Writer.
+ *
+ * Format (read back by StudentCsvReader):
+ *   id,name,age,major,gpa
+ *   101,An,19,CS,3.40
+ *   102,"Tran, Binh",20,,3.75
+ * - A field is quoted only if it contains a comma, a quote, CR or LF, or is the empty
+ *   string; quotes inside are doubled. A null name/major is an EMPTY UNQUOTED field,
+ *   while "" is the empty string, so both survive a round trip.
+ * - GPA is written with two decimals when that reads back as exactly the same double
+ *   (the usual case), otherwise with Double.toString. Numbers never depend on Locale.
+ *
+ * Memory: rows are formatted into one reusable buffer that is handed to the Writer
+ * every BUFFER_CHARS characters, so exporting any number of students uses constant
+ * memory and makes few Writer calls (no BufferedWriter needed).
+ *
+ * Caveats:
+ * - Not thread-safe: one writer per output.
+ * - Call flush() or close() at the end; close() also closes the Writer.
+ */
+public final class StudentCsvWriter implements Flushable, Closeable {
+
+    /** The header line, i.e. the column order. */
+    public static final String HEADER = "id,name,age,major,gpa";
+
+    private static final int BUFFER_CHARS = 1 << 15;
+
+    private final Writer out;
+    private final StringBuilder pending = new StringBuilder(BUFFER_CHARS + 256);
+    private final ReportWriter numbers = new ReportWriter(pending);
+    private char[] chunk = new char[BUFFER_CHARS];
+
+    public StudentCsvWriter(Writer out) {
+        this.out = Objects.requireNonNull(out, "out");
+    }
+
+    /** Writes the header line. */
+    public void writeHeader() throws IOException {
+        pending.append(HEADER).append('\n');
+    }
+
+    /** Writes one student as one line. */
+    public void write(Student s) throws IOException {
+        numbers.writeLong(s.getId());
+        pending.append(',');
+        writeText(s.getName());
+        pending.append(',');
+        numbers.writeLong(s.getAge());
+        pending.append(',');
+        writeText(s.getMajor());
+        pending.append(',');
+        writeGpa(s.getGpa());
+        pending.append('\n');
+        if (pending.length() >= BUFFER_CHARS) drain();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeText(String s) {
+        if (s == null) return; // empty unquoted field
+        if (!needsQuotes(s)) {
+            pending.append(s);
+            return;
+        }
+        pending.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') pending.append('"');
+            pending.append(c);
+        }
+        pending.append('"');
+    }
+
+    private static boolean needsQuotes(String s) {
+        if (s.isEmpty()) return true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    /** Two decimals when that round-trips exactly (digit by digit, no String); else Double.toString. */
+    private void writeGpa(double gpa) throws IOException {
+        double units = Math.rint(gpa * 100.0);
+        if (Math.abs(units) < 1e15 && units / 100.0 == gpa) {
+            numbers.writeFixed2(gpa);
+        } else {
+            pending.append(gpa);
+        }
+    }
+
+    private void drain() throws IOException {
+        int n = pending.length();
+        if (n == 0) return;
+        if (chunk.length < n) chunk = new char[n];
+        pending.getChars(0, n, chunk, 0);
+        out.write(chunk, 0, n);
+        pending.setLength(0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.son.oop.student;
+
+/**
+ * StudentDistribution — GPA and age distribution of a group of students (one major,
+ * or a whole registry), kept up to date as students are added.
+ *
+ * Contents:
+ * - gpa() / age(): QuantileSketch → approximate p50 / p90 / p99 (about 1% rank error)
+ * - gpaHistogram(): 16 buckets of 0.25 over 0.0..4.0
+ * - ageHistogram(): one bucket per year over 15..45
+ *
+ * add is O(1) amortized, so StudentRegistry updates a distribution per major on every
+ * add without sorting anything. Distributions merge (sketches and histograms both do),
+ * so per-shard or per-registry distributions can be combined into a global one.
+ *
+ * StudentRegistry hands out copies: changing one does not affect the registry.
+ *
+ * Caveats:
+ * - Not thread-safe.
+ * - NaN GPAs are counted in the GPA histogram's overflow but not in the GPA sketch.
+ */
+public final class StudentDistribution {
+
+    static final double GPA_LOW = 0.0, GPA_HIGH = 4.0;
+    static final int GPA_BUCKETS = 16;
+    static final int AGE_LOW = 15, AGE_HIGH = 45;
+
+    private final QuantileSketch gpa;
+    private final QuantileSketch age;
+    private final Histogram gpaHistogram;
+    private final Histogram ageHistogram;
+
+    /** An empty distribution. */
+    public StudentDistribution() {
+        this(new QuantileSketch(), new QuantileSketch(),
+                new Histogram(GPA_LOW, GPA_HIGH, GPA_BUCKETS),
+                new Histogram(AGE_LOW, AGE_HIGH, AGE_HIGH - AGE_LOW));
+    }
+
+    private StudentDistribution(QuantileSketch gpa, QuantileSketch age, Histogram gpaHistogram, Histogram ageHistogram) {
+        this.gpa = gpa;
+        this.age = age;
+        this.gpaHistogram = gpaHistogram;
+        this.ageHistogram = ageHistogram;
+    }
+
+    /** Records one student. O(1) amortized. */
+    public void add(Student s) { add(s.getAge(), s.getGpa()); }
+
+    void add(int studentAge, double studentGpa) {
+        if (!Double.isNaN(studentGpa)) gpa.update(studentGpa);
+        age.update(studentAge);
+        gpaHistogram.add(studentGpa);
+        ageHistogram.add(studentAge);
+    }
+
+    /** Adds every student recorded in 'other' (other is not changed). Returns this. */
+    public StudentDistribution merge(StudentDistribution other) {
+        gpa.merge(other.gpa);
+        age.merge(other.age);
+        gpaHistogram.merge(other.gpaHistogram);
+        ageHistogram.merge(other.ageHistogram);
+        return this;
+    }
+
+    /** Number of students recorded. */
+    public long count() { return age.count(); }
+
+    public QuantileSketch gpa() { return gpa; }
+
+    public QuantileSketch age() { return age; }
+
+    public Histogram gpaHistogram() { return gpaHistogram; }
+
+    public Histogram ageHistogram() { return ageHistogram; }
+
+    /** Copy that evolves independently of this distribution. */
+    public StudentDistribution copy() {
+        return new StudentDistribution(gpa.copy(), age.copy(), gpaHistogram.copy(), ageHistogram.copy());
+    }
+
+    /** E.g. "n=120, GPA p50/p90/p99=2.95/3.71/3.96, age p50/p90/p99=20.0/23.0/24.0". */
+    @Override
+    public String toString() {
+        return "n=" + count()
+                + ", GPA p50/p90/p99=" + gpa.quantile(0.5) + "/" + gpa.quantile(0.9) + "/" + gpa.quantile(0.99)
+                + ", age p50/p90/p99=" + age.quantile(0.5) + "/" + age.quantile(0.9) + "/" + age.quantile(0.99);
+    }
+}
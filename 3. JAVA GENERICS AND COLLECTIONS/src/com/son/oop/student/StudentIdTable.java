@@ -0,0 +1,133 @@
+package com.son.oop.student;
+
+import java.util.Arrays;
+
+/**
+ * StudentIdTable — the open-addressing table behind StudentSet and StudentMap.
+ *
+ * Layout (parallel arrays, one slot per index):
+ *   ids[i]       int      the key, compared and hashed without touching the Student
+ *   students[i]  Student  the member (null = empty slot, so any int can be an id)
+ *   values[i]    Object   the mapped value (StudentMap only; null array for sets)
+ *
+ * Design:
+ * - Linear probing over a power-of-two table, hashed with IntIntHashMap.mix, load
+ *   factor ≤ 0.5 (like IntIntHashMap).
+ * - Unlike IntIntHashMap it supports remove, by BACKWARD-SHIFT deletion: the entries
+ *   after the freed slot are moved back when their probe sequence passes over it, so
+ *   no tombstones accumulate and lookups stay short.
+ * - find/insert/remove allocate nothing; only growing the table does.
+ *
+ * Caveats:
+ * - Not thread-safe.
+ */
+final class StudentIdTable {
+
+    private int[] ids;
+    private Student[] students;
+    private Object[] values;
+    private final boolean withValues;
+    private int mask;
+    private int size;
+
+    StudentIdTable(int expectedSize, boolean withValues) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must be >= 0");
+        this.withValues = withValues;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() { return size; }
+
+    /** Slot holding this id, or -1. */
+    int find(int id) {
+        int i = IntIntHashMap.mix(id) & mask;
+        while (students[i] != null) {
+            if (ids[i] == id) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Slot for the student's id: the existing slot if the id is present (returned as
+     * -(slot) - 1, the table unchanged), otherwise a new slot now holding 's'.
+     */
+    int insert(Student s) {
+        if (size + 1 > (mask + 1) >>> 1) rehash((mask + 1) << 1);
+        int id = s.getId();
+        int i = IntIntHashMap.mix(id) & mask;
+        while (students[i] != null) {
+            if (ids[i] == id) return -i - 1;
+            i = (i + 1) & mask;
+        }
+        ids[i] = id;
+        students[i] = s;
+        size++;
+        return i;
+    }
+
+    Student student(int slot) { return students[slot]; }
+
+    Object value(int slot) { return values[slot]; }
+
+    void setValue(int slot, Object value) { values[slot] = value; }
+
+    /** Empties a slot and shifts later entries of its probe run back into the gap. */
+    void remove(int slot) {
+        int gap = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            if (students[i] == null) break;
+            int home = IntIntHashMap.mix(ids[i]) & mask;
+            // The entry at i may move to the gap unless its home lies cyclically in (gap, i].
+            boolean stays = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (stays) continue;
+            ids[gap] = ids[i];
+            students[gap] = students[i];
+            if (withValues) values[gap] = values[i];
+            gap = i;
+        }
+        students[gap] = null;
+        if (withValues) values[gap] = null;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(students, null);
+        if (withValues) Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /** Slots are 0 .. capacity()-1; a slot is used when student(slot) != null. */
+    int capacity() { return mask + 1; }
+
+    private void rehash(int newCapacity) {
+        int[] oldIds = ids;
+        Student[] oldStudents = students;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int j = 0; j < oldStudents.length; j++) {
+            if (oldStudents[j] == null) continue;
+            int i = IntIntHashMap.mix(oldIds[j]) & mask;
+            while (students[i] != null) i = (i + 1) & mask;
+            ids[i] = oldIds[j];
+            students[i] = oldStudents[j];
+            if (withValues) values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        students = new Student[capacity];
+        values = withValues ? new Object[capacity] : null;
+        mask = capacity - 1;
+    }
+
+    /** Smallest power of two that keeps expectedSize at <= 50% load. */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(16L, (long) expectedSize * 2);
+        if (needed > (1 << 30)) return 1 << 30;
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
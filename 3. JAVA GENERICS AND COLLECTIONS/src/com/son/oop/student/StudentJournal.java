@@ -0,0 +1,533 @@
+package com.son.oop.student;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * StudentJournal — an append-only write-ahead log of added students.
+ *
+ * A registry with a journal attached (see StudentRegistry.recover) logs every add
+ * BEFORE applying it, so after a crash: state = last snapshot + replay of the journal.
+ *
+ * On disk:
+ * - A directory of SEGMENT files named by a sequence number (0000000000000001.wal, ...).
+ *   When the current segment reaches the size limit, a new one is started ("rolling");
+ *   a checkpoint deletes the segments that a snapshot already covers.
+ * - Each record: int payloadLength | int CRC32C(payload) | payload, where payload is
+ *   int id | int age | double gpa | string name | string major, and a string is
+ *   int byteLength (-1 for null) + UTF-8 bytes.
+ *
+ * Durability (FsyncPolicy):
+ * - EVERY_COMMIT: append returns only once its record is forced to disk. Forcing uses
+ *   GROUP COMMIT: the first waiting thread becomes the "leader" and forces once for
+ *   every record written so far; the others just wait for it. With many concurrent
+ *   appenders, one fsync (~ms) is shared by all of them. A single thread pays one
+ *   fsync per call, so batch with appendAll (one write, one fsync for the batch).
+ * - INTERVAL: append returns after the write() into the OS page cache (microseconds);
+ *   a background thread forces every 'intervalMillis'. A machine crash loses at most
+ *   that window; a process crash loses nothing.
+ * - OS: never forces; the OS writes pages back on its own schedule (sync() still works).
+ *
+ * Recovery:
+ * - replay reads the segments in order and checks every CRC. A torn or corrupt record
+ *   at the end of the last non-empty segment is the normal result of a crash mid-write:
+ *   replay stops there and truncates it. Corruption anywhere else is an IOException.
+ * - open() always starts a fresh segment, so old segments are never appended to.
+ *
+ * Caveats:
+ * - Thread-safe: appends from many threads are serialized into one stream.
+ * - If a write or force fails, the journal refuses further appends: after a failed fsync
+ *   the OS may have dropped the dirty pages, so retrying could silently lose records.
+ *   Interrupting an appending thread counts as a failure: it closes the channel.
+ * - A record's payload is limited to 16 MiB; larger students are rejected by append.
+ * - New segment files are not followed by a directory fsync (not portable in Java).
+ */
+public final class StudentJournal implements Closeable {
+
+    /** When appended records are forced to disk. */
+    public enum FsyncPolicy {
+        /** Force before append returns (group commit across threads). */
+        EVERY_COMMIT,
+        /** Force from a background thread every intervalMillis. */
+        INTERVAL,
+        /** Never force; leave write-back to the OS. */
+        OS
+    }
+
+    /** Default segment size limit: 64 MiB. */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    /** Default background sync period for INTERVAL. */
+    public static final long DEFAULT_INTERVAL_MILLIS = 10;
+
+    private static final String SUFFIX = ".wal";
+    private static final int RECORD_HEADER = 8;
+    private static final int MAX_PAYLOAD = 1 << 24;
+
+    private final Path dir;
+    private final FsyncPolicy policy;
+    private final long segmentBytes;
+
+    // ---- writer state, guarded by writeLock --------------------------------------
+    private final Object writeLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+    private FileChannel channel;
+    private long segmentSeq;
+    private long segmentPos;
+    /** Total bytes handed to write() since open (the log sequence number). */
+    private long written;
+    private boolean closed;
+
+    // ---- durability state, guarded by syncLock ------------------------------------
+    private final Object syncLock = new Object();
+    /** Bytes known to be on disk (≤ written). */
+    private long durable;
+    private boolean syncing;
+    private IOException failure;
+
+    /** Segments that existed at open, oldest first (what replay reads). */
+    private final List<Path> oldSegments;
+    private final Thread syncer;
+    /**
+     * Set by close() to stop the syncer. It is woken with unpark, never interrupted:
+     * interrupting a thread inside FileChannel.force closes the channel.
+     */
+    private volatile boolean stopping;
+
+    private StudentJournal(Path dir, FsyncPolicy policy, long segmentBytes, long intervalMillis) throws IOException {
+        this.dir = dir;
+        this.policy = policy;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        this.oldSegments = segments(dir);
+        long last = oldSegments.isEmpty() ? 0 : seqOf(oldSegments.get(oldSegments.size() - 1));
+        openSegment(last + 1);
+        if (policy == FsyncPolicy.INTERVAL) {
+            syncer = new Thread(() -> syncLoop(intervalMillis), "student-journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    /** Opens (creating if needed) the journal in 'dir' with default segment size and interval. */
+    public static StudentJournal open(Path dir, FsyncPolicy policy) throws IOException {
+        return open(dir, policy, DEFAULT_SEGMENT_BYTES, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens (creating if needed) the journal in 'dir'.
+     *
+     * Throws IllegalArgumentException if segmentBytes or intervalMillis is not positive.
+     */
+    public static StudentJournal open(Path dir, FsyncPolicy policy, long segmentBytes, long intervalMillis)
+            throws IOException {
+        Objects.requireNonNull(dir, "dir");
+        Objects.requireNonNull(policy, "policy");
+        if (segmentBytes <= 0) throw new IllegalArgumentException("segmentBytes must be > 0");
+        if (intervalMillis <= 0) throw new IllegalArgumentException("intervalMillis must be > 0");
+        return new StudentJournal(dir, policy, segmentBytes, intervalMillis);
+    }
+
+    public FsyncPolicy policy() { return policy; }
+
+    /**
+     * Logs one student. Durable on return under EVERY_COMMIT.
+     * Throws IllegalArgumentException if its record would exceed 16 MiB.
+     */
+    public void append(Student s) throws IOException {
+        appendAll(List.of(s));
+    }
+
+    /**
+     * Logs several students with one write (per segment) and, under EVERY_COMMIT,
+     * one force. Records of one call are never interleaved with other threads'.
+     * Throws IllegalArgumentException, logging none of them, if a record would exceed
+     * 16 MiB (replay would take it for corruption).
+     */
+    public void appendAll(Collection<Student> students) throws IOException {
+        for (Student s : students) requireEncodable(Objects.requireNonNull(s, "student")); // nothing half-buffered
+        long lsn;
+        synchronized (writeLock) {
+            ensureWritable();
+            try {
+                for (Student s : students) encode(s);
+                flush();
+            } catch (IOException e) {
+                fail(e); // e.g. ClosedByInterruptException: the channel is gone
+                throw e;
+            }
+            lsn = written;
+        }
+        if (policy == FsyncPolicy.EVERY_COMMIT) awaitDurable(lsn);
+    }
+
+    /** Forces everything appended so far to disk, whatever the policy. */
+    public void sync() throws IOException {
+        long lsn;
+        synchronized (writeLock) {
+            ensureWritable();
+            lsn = written;
+        }
+        awaitDurable(lsn);
+    }
+
+    /**
+     * Reads every record of the segments that existed when the journal was opened,
+     * oldest first, and passes it to 'sink'. A torn tail of the last segment is cut off.
+     *
+     * Throws IOException if a segment other than the last is corrupt.
+     */
+    public void replay(Consumer<Student> sink) throws IOException {
+        for (int i = 0; i < oldSegments.size(); i++) {
+            Path segment = oldSegments.get(i);
+            if (!Files.exists(segment)) continue; // deleted by a checkpoint since open
+            long valid = replaySegment(segment, sink);
+            if (valid < Files.size(segment)) {
+                if (!onlyEmptyAfter(i)) throw new IOException("corrupt journal segment " + segment + " at byte " + valid);
+                try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    ch.truncate(valid);
+                    ch.force(true);
+                }
+            }
+        }
+    }
+
+    /** True if every segment after oldSegments[i] is empty (i.e. i was the last one written). */
+    private boolean onlyEmptyAfter(int i) throws IOException {
+        for (int j = i + 1; j < oldSegments.size(); j++) {
+            Path later = oldSegments.get(j);
+            if (Files.exists(later) && Files.size(later) > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Starts a new segment and returns its sequence number. Every record appended
+     * before this call lives in an older segment (forced to disk here).
+     */
+    long roll() throws IOException {
+        synchronized (writeLock) {
+            ensureWritable();
+            try {
+                flush();
+                rollSegment();
+            } catch (IOException e) {
+                fail(e);
+                throw e;
+            }
+            return segmentSeq;
+        }
+    }
+
+    /** Deletes every segment older than 'seq' (their records are covered by a snapshot). */
+    void deleteSegmentsBefore(long seq) throws IOException {
+        for (Path segment : segments(dir)) {
+            if (seqOf(segment) < seq) Files.deleteIfExists(segment);
+        }
+    }
+
+    /** Forces outstanding records, stops the background syncer and closes the segment. */
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            stopping = true;
+            LockSupport.unpark(syncer);
+            try {
+                syncer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while stopping the journal syncer");
+            }
+        }
+        synchronized (writeLock) {
+            if (closed) return;
+            try {
+                if (failure() == null) {
+                    flush();
+                    channel.force(false);
+                }
+            } finally {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    // ---- writing --------------------------------------------------------------------
+
+    private void encode(Student s) throws IOException {
+        byte[] name = utf8(s.getName());
+        byte[] major = utf8(s.getMajor());
+        int payload = payloadSize(name, major);
+        int size = RECORD_HEADER + payload;
+        if (segmentPos + buf.position() > 0 && segmentPos + buf.position() + size > segmentBytes) {
+            flush();
+            rollSegment();
+        }
+        if (buf.remaining() < size) {
+            flush();
+            if (buf.capacity() < size) buf = ByteBuffer.allocate(size);
+        }
+        int start = buf.position();
+        buf.putInt(payload).putInt(0)
+                .putInt(s.getId()).putInt(s.getAge()).putDouble(s.getGpa());
+        putString(name);
+        putString(major);
+        ByteBuffer body = buf.duplicate();
+        body.position(start + RECORD_HEADER).limit(buf.position());
+        crc.reset();
+        crc.update(body);
+        buf.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /** Payload bytes of a record; throws IllegalArgumentException above MAX_PAYLOAD. */
+    private static int payloadSize(byte[] name, byte[] major) {
+        long payload = 4 + 4 + 8 + 4 + (long) length(name) + 4 + length(major);
+        if (payload > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("student record too large: " + payload + " bytes > " + MAX_PAYLOAD);
+        }
+        return (int) payload;
+    }
+
+    /** Checks the size before anything is buffered; encodes only when the char count cannot rule it out. */
+    private static void requireEncodable(Student s) {
+        long maxBytes = 3L * (lengthOf(s.getName()) + lengthOf(s.getMajor())); // ≤ 3 UTF-8 bytes per char
+        if (4 + 4 + 8 + 4 + 4 + maxBytes > MAX_PAYLOAD) payloadSize(utf8(s.getName()), utf8(s.getMajor()));
+    }
+
+    private static int lengthOf(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    /** Hands the buffered records to the OS. */
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            int n = channel.write(buf);
+            segmentPos += n;
+            written += n;
+        }
+        buf.clear();
+    }
+
+    /** Closes the current segment (forced) and opens the next one. Caller holds writeLock. */
+    private void rollSegment() throws IOException {
+        FileChannel old = channel;
+        old.force(false);
+        old.close(); // a leader forcing 'old' right now gets ClosedChannelException: see awaitDurable
+        markDurable(written);
+        openSegment(segmentSeq + 1);
+    }
+
+    private void openSegment(long seq) throws IOException {
+        channel = FileChannel.open(dir.resolve(String.format("%016d%s", seq, SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSeq = seq;
+        segmentPos = 0;
+    }
+
+    private void ensureWritable() throws IOException {
+        if (closed) throw new IOException("journal is closed");
+        IOException f = failure();
+        if (f != null) throw new IOException("journal failed earlier; refusing to append", f);
+    }
+
+    // ---- group commit ---------------------------------------------------------------
+
+    /**
+     * Returns once bytes [0, lsn) are on disk. If nobody is forcing, this thread becomes
+     * the leader and forces everything written so far (possibly far beyond lsn, which is
+     * what lets one force cover many appenders); otherwise it waits for the leader.
+     */
+    private void awaitDurable(long lsn) throws IOException {
+        synchronized (syncLock) {
+            while (true) {
+                if (failure != null) throw new IOException("journal force failed", failure);
+                if (durable >= lsn) return;
+                if (!syncing) break;
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for journal force");
+                }
+            }
+            syncing = true;
+        }
+        long target;
+        FileChannel ch;
+        synchronized (writeLock) {
+            target = written;
+            ch = channel;
+        }
+        IOException error = null;
+        boolean fatal = false;
+        try {
+            ch.force(false);
+        } catch (ClosedChannelException e) {
+            // Benign only if the segment rolled meanwhile: rollSegment forced 'ch' and marked
+            // 'target' durable. Otherwise the journal was closed, or an interrupt closed the
+            // active channel (ClosedByInterruptException) and nothing is known to be on disk.
+            synchronized (writeLock) {
+                boolean rolled = !closed && channel != ch;
+                if (!rolled) {
+                    error = e;
+                    fatal = !closed;
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+            fatal = true;
+        }
+        synchronized (syncLock) {
+            syncing = false;
+            if (error == null) {
+                durable = Math.max(durable, target);
+            } else if (fatal && failure == null) {
+                failure = error;
+            }
+            syncLock.notifyAll();
+        }
+        if (error != null) throw error;
+    }
+
+    private void markDurable(long lsn) {
+        synchronized (syncLock) {
+            durable = Math.max(durable, lsn);
+            syncLock.notifyAll();
+        }
+    }
+
+    /** Records the first fatal error; later appends report it. */
+    private void fail(IOException e) {
+        synchronized (syncLock) {
+            if (failure == null) failure = e;
+            syncLock.notifyAll();
+        }
+    }
+
+    private IOException failure() {
+        synchronized (syncLock) {
+            return failure;
+        }
+    }
+
+    private void syncLoop(long intervalMillis) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        try {
+            while (!stopping) {
+                LockSupport.parkNanos(this, intervalNanos);
+                if (!stopping) sync();
+            }
+        } catch (IOException e) {
+            // closed, or the failure is recorded and reported to the next append
+        }
+    }
+
+    // ---- reading --------------------------------------------------------------------
+
+    /** Replays one segment; returns the length of its valid prefix. */
+    private static long replaySegment(Path segment, Consumer<Student> sink) throws IOException {
+        CRC32C crc = new CRC32C();
+        long valid = 0;
+        try (InputStream raw = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            byte[] payload = new byte[256];
+            while (true) {
+                int length, checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > MAX_PAYLOAD) return valid;
+                    if (payload.length < length) payload = new byte[length];
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    return valid; // clean end, or a record torn by a crash
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) return valid;
+                Student s = decode(ByteBuffer.wrap(payload, 0, length));
+                if (s == null) return valid;
+                sink.accept(s);
+                valid += RECORD_HEADER + length;
+            }
+        }
+    }
+
+    /** Decodes a payload, or returns null if it is malformed. */
+    private static Student decode(ByteBuffer p) {
+        try {
+            int id = p.getInt();
+            int age = p.getInt();
+            double gpa = p.getDouble();
+            String name = getString(p);
+            String major = getString(p);
+            return p.hasRemaining() ? null : new Student(id, name, age, major, gpa);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String getString(ByteBuffer p) {
+        int length = p.getInt();
+        if (length == -1) return null;
+        byte[] bytes = new byte[length];
+        p.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).forEach(out::add);
+        }
+        out.sort((a, b) -> Long.compare(seqOf(a), seqOf(b)));
+        return out;
+    }
+
+    private static long seqOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
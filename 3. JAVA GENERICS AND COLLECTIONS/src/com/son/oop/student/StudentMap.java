@@ -0,0 +1,85 @@
+package com.son.oop.student;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * StudentMap — a map from students (by id, i.e. Student equality) to values.
+ *
+ * Same storage as StudentSet (StudentIdTable): ids in a primitive int[], so put, get
+ * and remove compare ints and allocate nothing, instead of one HashMap.Node per entry
+ * plus hashCode()/equals() calls. Lookups by raw id (getById) need no Student at all.
+ *
+ * Semantics follow HashMap<Student, V>: put on an existing key replaces the value and
+ * keeps the original key; null values are allowed (get then cannot tell "absent" from
+ * "mapped to null": use containsKey). Iteration order is unspecified.
+ *
+ * Caveats:
+ * - Not thread-safe.
+ */
+public final class StudentMap<V> {
+
+    private final StudentIdTable table;
+
+    public StudentMap() { this(16); }
+
+    /** Presized for 'expectedSize' entries. Throws IllegalArgumentException if negative. */
+    public StudentMap(int expectedSize) { table = new StudentIdTable(expectedSize, true); }
+
+    public int size() { return table.size(); }
+
+    public boolean isEmpty() { return table.size() == 0; }
+
+    /** Maps key to value; returns the previous value (null if none). */
+    @SuppressWarnings("unchecked")
+    public V put(Student key, V value) {
+        Objects.requireNonNull(key, "key");
+        int slot = table.insert(key);
+        V previous = null;
+        if (slot < 0) {
+            slot = -slot - 1;
+            previous = (V) table.value(slot);
+        }
+        table.setValue(slot, value);
+        return previous;
+    }
+
+    /** Value of the student with key's id, or null. */
+    public V get(Student key) { return getById(key.getId()); }
+
+    @SuppressWarnings("unchecked")
+    public V getById(int id) {
+        int slot = table.find(id);
+        return slot < 0 ? null : (V) table.value(slot);
+    }
+
+    public boolean containsKey(Student key) { return table.find(key.getId()) >= 0; }
+
+    public boolean containsId(int id) { return table.find(id) >= 0; }
+
+    /** Removes the entry of key's id; returns its value (null if none). */
+    public V remove(Student key) { return removeId(key.getId()); }
+
+    @SuppressWarnings("unchecked")
+    public V removeId(int id) {
+        int slot = table.find(id);
+        if (slot < 0) return null;
+        V value = (V) table.value(slot);
+        table.remove(slot);
+        return value;
+    }
+
+    public void clear() { table.clear(); }
+
+    /** Calls action for every entry (unspecified order), allocating nothing. */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Student, ? super V> action) {
+        for (int slot = 0, n = table.capacity(); slot < n; slot++) {
+            Student s = table.student(slot);
+            if (s != null) action.accept(s, (V) table.value(slot));
+        }
+    }
+
+    @Override
+    public String toString() { return "StudentMap[size=" + size() + "]"; }
+}
@@ -0,0 +1,136 @@
+package com.son.oop.student;
+
+import java.util.Objects;
+
+/**
+ * StudentQuery — an immutable conjunction of predicates on id, age, major and GPA,
+ * run by StudentRegistry.query / count / explain.
+ *
+ * Example: "CS majors aged 19–21 with GPA ≥ 3.5"
+ *   StudentQuery q = StudentQuery.all().major("CS").ageBetween(19, 21).gpaAtLeast(3.5);
+ *   List<Student> hits = registry.query(q);
+ *
+ * Composition:
+ * - Every method returns a NEW query that also requires the given predicate, so a base
+ *   query can be shared and refined. Repeating a predicate narrows it: two ranges
+ *   intersect, two different majors match nothing. and(other) combines two queries.
+ * - Bounds are inclusive. Majors match case-insensitively, like filterByMajor.
+ * - GPA bounds compare with Double.compare (the order the GPA index is sorted in), so
+ *   NaN never falls inside a GPA range and -0.0 sorts below 0.0.
+ *
+ * Why ranges instead of arbitrary Predicate<Student>?
+ * - A range can be answered from a sorted index with two binary searches; an opaque
+ *   lambda can only be answered by testing every student.
+ */
+public final class StudentQuery {
+
+    private static final StudentQuery ALL = new StudentQuery(
+            Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+            null, false, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, false);
+
+    final int idLo, idHi;
+    final int ageLo, ageHi;
+    /** Normalized major (see StudentRegistry.normalizeMajor); null when unconstrained. */
+    final String majorKey;
+    final boolean gpaBounded;
+    final double gpaLo, gpaHi;
+    /** True when the predicates contradict each other (nothing can match). */
+    private final boolean none;
+    private final String majorText;
+
+    private StudentQuery(int idLo, int idHi, int ageLo, int ageHi, String majorText, boolean conflictingMajor,
+                         double gpaLo, double gpaHi, boolean gpaBounded, boolean none) {
+        this.idLo = idLo;
+        this.idHi = idHi;
+        this.ageLo = ageLo;
+        this.ageHi = ageHi;
+        this.majorText = majorText;
+        this.majorKey = StudentRegistry.normalizeMajor(majorText);
+        this.gpaLo = gpaLo;
+        this.gpaHi = gpaHi;
+        this.gpaBounded = gpaBounded;
+        this.none = none || conflictingMajor || idLo > idHi || ageLo > ageHi
+                || (gpaBounded && Double.compare(gpaLo, gpaHi) > 0);
+    }
+
+    /** The query that matches every student; refine it with the methods below. */
+    public static StudentQuery all() { return ALL; }
+
+    public StudentQuery idEquals(int id) { return idBetween(id, id); }
+
+    public StudentQuery idBetween(int lo, int hi) {
+        return new StudentQuery(Math.max(idLo, lo), Math.min(idHi, hi), ageLo, ageHi,
+                majorText, false, gpaLo, gpaHi, gpaBounded, none);
+    }
+
+    public StudentQuery ageBetween(int lo, int hi) {
+        return new StudentQuery(idLo, idHi, Math.max(ageLo, lo), Math.min(ageHi, hi),
+                majorText, false, gpaLo, gpaHi, gpaBounded, none);
+    }
+
+    /** Students of this major (case-insensitive). Throws NullPointerException if major is null. */
+    public StudentQuery major(String major) {
+        Objects.requireNonNull(major, "major");
+        boolean conflict = majorKey != null && !majorKey.equals(StudentRegistry.normalizeMajor(major));
+        return new StudentQuery(idLo, idHi, ageLo, ageHi, major, conflict, gpaLo, gpaHi, gpaBounded, none);
+    }
+
+    public StudentQuery gpaBetween(double lo, double hi) {
+        double newLo = Double.compare(lo, gpaLo) > 0 ? lo : gpaLo;
+        double newHi = Double.compare(hi, gpaHi) < 0 ? hi : gpaHi;
+        return new StudentQuery(idLo, idHi, ageLo, ageHi, majorText, false, newLo, newHi, true, none);
+    }
+
+    public StudentQuery gpaAtLeast(double lo) { return gpaBetween(lo, Double.POSITIVE_INFINITY); }
+
+    public StudentQuery gpaAtMost(double hi) { return gpaBetween(Double.NEGATIVE_INFINITY, hi); }
+
+    /** Students matching both queries. */
+    public StudentQuery and(StudentQuery other) {
+        StudentQuery q = idBetween(other.idLo, other.idHi).ageBetween(other.ageLo, other.ageHi);
+        if (other.majorText != null) q = q.major(other.majorText);
+        if (other.gpaBounded) q = q.gpaBetween(other.gpaLo, other.gpaHi);
+        return other.none ? q.contradiction() : q;
+    }
+
+    /** True if the student satisfies every predicate. */
+    public boolean matches(Student s) {
+        return !none
+                && s.getId() >= idLo && s.getId() <= idHi
+                && s.getAge() >= ageLo && s.getAge() <= ageHi
+                && (majorKey == null || (s.getMajorRef() != null && s.getMajorRef().code() == Major.codeOf(majorKey)))
+                && gpaInRange(s.getGpa());
+    }
+
+    /** True if no student can match (e.g. ageBetween(30, 20)). */
+    boolean isEmpty() { return none; }
+
+    boolean idConstrained() { return idLo != Integer.MIN_VALUE || idHi != Integer.MAX_VALUE; }
+
+    boolean ageConstrained() { return ageLo != Integer.MIN_VALUE || ageHi != Integer.MAX_VALUE; }
+
+    boolean gpaInRange(double gpa) {
+        return !gpaBounded || (Double.compare(gpa, gpaLo) >= 0 && Double.compare(gpa, gpaHi) <= 0);
+    }
+
+    private StudentQuery contradiction() {
+        return new StudentQuery(idLo, idHi, ageLo, ageHi, majorText, false, gpaLo, gpaHi, gpaBounded, true);
+    }
+
+    /** Readable form, e.g. "major = CS AND age in [19, 21] AND gpa in [3.5, Infinity]". */
+    @Override
+    public String toString() {
+        if (none) return "FALSE";
+        StringBuilder sb = new StringBuilder();
+        if (idConstrained()) append(sb, idLo == idHi ? "id = " + idLo : "id in [" + idLo + ", " + idHi + "]");
+        if (majorText != null) append(sb, "major = " + majorText);
+        if (ageConstrained()) append(sb, "age in [" + ageLo + ", " + ageHi + "]");
+        if (gpaBounded) append(sb, "gpa in [" + gpaLo + ", " + gpaHi + "]");
+        return sb.length() == 0 ? "TRUE" : sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String predicate) {
+        if (sb.length() > 0) sb.append(" AND ");
+        sb.append(predicate);
+    }
+}
@@ -1,7 +1,13 @@
 package com.son.oop.student;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * StudentRegistry
@@ -12,76 +18,776 @@ import java.util.stream.Collectors;
  *   sort by GPA (desc) then name, group by major, and build a text report.
  *
  * Design notes:
- * - Internal storage is a mutable ArrayList (append-friendly).
- * - all() returns List.copyOf(data) → callers cannot mutate the registry from outside.
+ * - Storage is pluggable (see Storage / StudentStore), and append-only. Every student
+ *   has a ROW number (its insertion position); the indexes below store rows.
+ *   - OBJECTS (default): an ArrayList of Student objects.
+ *   - COLUMNAR: parallel primitive arrays (ids, ages, gpas, dictionary-encoded majors).
+ *     Much smaller per student; Student objects are created only when returned.
+ * - all() returns an unmodifiable snapshot → callers cannot mutate the registry from outside.
+ *   Both all() and snapshot() are O(1): rows are append-only, so a version is just the
+ *   store's memory plus a row count (StudentStore.pin()), shared rather than copied.
  * - findById returns Optional<Student> to express "may not exist".
- * - groupByMajor uses LinkedHashMap to preserve key insertion order in the report.
+ * - A primary-key index (id → row) makes findById O(1). It is an
+ *   IntIntHashMap (primitive open addressing), so no Integer is boxed per entry.
+ *   Ids are unique: add rejects a second student with an existing id.
+ * - A secondary index (major → students) makes filterByMajor cost O(result size)
+ *   instead of O(n). Majors are grouped case-insensitively, so "CS" and "cs" land in
+ *   the same bucket: students reference interned Majors (see Major), whose code is the
+ *   same for every spelling, and the index is an array indexed by that code. Matching
+ *   a major is an int comparison, never a per-row lower-casing.
+ * - groupByMajor hands out read-only views of that index. The key order is
+ *   insertion order (LinkedHashMap), and each key is the spelling seen first.
+ * - report() does not rescan: add keeps a global GPA sum, and each major bucket keeps
+ *   its own GPA sum and a bounded top-3 heap (see MajorBucket, RowTopK). A report is
+ *   therefore O(number of majors) instead of O(n log n).
+ * - topByGpa(k) / topByGpa(major, k) use the same bounded heap to select leaders in
+ *   O(n log k), for callers that only need the first page of the GPA ranking.
+ * - Pagination: page/pageAfter walk registry order; pageByGpa/pageByGpaAfter walk the
+ *   GPA ranking. Each page costs O(page size) (+ O(log n) to resolve a keyset cursor).
+ *   The GPA ranking is a cached int[] of rows, built once and reused across pages and
+ *   by sortByGpaDescThenName until the next add invalidates it.
+ * - addAll loads a batch in one pass (presized storage, batch id validation,
+ *   all-or-nothing); loadSnapshot decodes a snapshot in parallel and feeds addAll.
+ * - importCsv/exportCsv stream CSV in constant memory (StudentCsvReader/Writer);
+ *   imports feed addAll chunk by chunk.
+ * - writeSnapshot/openSnapshot persist the registry as a binary file (fixed-width
+ *   records + string table). Opening memory-maps it, so startup reads no student data.
+ * - recover(snapshot, journal) attaches a write-ahead StudentJournal: every add is
+ *   logged before it is applied, and checkpoint writes a snapshot and trims the journal.
+ * - gpaRank / countGpaAbove / gpaPercentile / gpaAtPercentile are O(log n): an
+ *   order-statistic treap over the GPA ranking (GpaRankIndex), built on first use and
+ *   then updated by each add. It also turns re-sorting the ranking into an O(n) walk.
+ * - distribution() / distribution(major) give GPA and age percentiles and histograms from
+ *   mergeable sketches that add keeps current (see StudentDistribution).
+ * - query(StudentQuery) answers conjunctions of id/age/major/GPA predicates. It picks the
+ *   most selective index (id, major bucket, age index, GPA ranking) using binary-searched
+ *   range bounds, and scans only when no index applies.
+ * - changes() publishes every add to Flow subscribers through bounded per-subscriber
+ *   buffers, so caches can follow the registry without copying it (StudentChangeStream).
+ * - parallel() returns fork/join versions of the full-scan queries (sorting, grouping,
+ *   recomputing the report from raw rows) for large registries on many cores.
  *
  * Caveats:
  * - This is not thread-safe. If multiple threads access/modify the same registry,
- *   wrap with synchronization or use a concurrent design.
- * - filterByMajor assumes Student.getMajor() is non-null. If majors can be null,
- *   add a null check before equalsIgnoreCase.
+ *   wrap with synchronization or use ConcurrentStudentRegistry. (A RegistrySnapshot
+ *   taken on the writer thread is the exception: it may be read concurrently with adds.)
+ * - Students with a null major are indexed under a null key; filterByMajor(null)
+ *   still returns an empty list, as it did before the index existed.
  */
 public class StudentRegistry {
 
-    /** Internal storage (append order). */
-    private final List<Student> data = new ArrayList<>();
+    /** Storage layout, chosen when the registry is created. */
+    public enum Storage {
+        /** One Student object per row (the original layout). */
+        OBJECTS,
+        /** Primitive column arrays; Student objects are built on demand. */
+        COLUMNAR
+    }
+
+    /** The ordering used by sortByGpaDescThenName and the report leaders. */
+    static final Comparator<Student> BY_GPA_DESC_THEN_NAME =
+            Comparator.comparingDouble(Student::getGpa).reversed()
+                    .thenComparing(Student::getName);
+
+    /** Students per addAll call when importing CSV. */
+    static final int CSV_CHUNK = 8192;
+
+    /** Internal storage (append order; row = position). */
+    private final StudentStore store;
+
+    /** Primary-key index: student id → row. */
+    private final IntIntHashMap idIndex = new IntIntHashMap();
+
+    /** Secondary index: Major.code() → bucket (students + running aggregates); null slots unused. */
+    private MajorBucket[] byCode = new MajorBucket[16];
+
+    /** Bucket of the students without a major; null until the first one. */
+    private MajorBucket noMajor;
+
+    /** The same buckets, in the order their majors were first added (report order). */
+    private final List<MajorBucket> buckets = new ArrayList<>();
+
+    /** Running sum of every student's GPA, in insertion order. */
+    private double gpaSum;
+
+    /** Cached rows in GPA-desc-then-name order; null when stale (any add clears it). */
+    private int[] gpaOrder;
+
+    /**
+     * Order-statistic tree over the GPA ranking (rank / percentile queries). Built on
+     * first use, then kept current by every add; null until then.
+     */
+    private GpaRankIndex rankIndex;
+
+    /** Cached rows sorted by age, then row; null when stale (any add clears it). */
+    private int[] ageOrder;
+
+    /** Write-ahead log every add goes to first; null when not journaled (see recover). */
+    private StudentJournal journal;
+
+    /** Publisher of added students; created by the first changes() call, null until then. */
+    private StudentChangeStream changes;
+
+    /** What groupByMajor returns: first-seen major spelling → read-only view of its bucket. */
+    private final Map<String, List<Student>> groups = new LinkedHashMap<>();
+    private final Map<String, List<Student>> groupsView = Collections.unmodifiableMap(groups);
+
+    /** Creates an empty registry with the default OBJECTS storage. */
+    public StudentRegistry() { this(Storage.OBJECTS); }
+
+    /**
+     * Creates an empty registry with the given storage layout.
+     * All methods behave the same for both layouts; only memory use and
+     * object allocation differ.
+     */
+    public StudentRegistry(Storage storage) {
+        this.store = switch (Objects.requireNonNull(storage, "storage")) {
+            case OBJECTS -> new ObjectStudentStore();
+            case COLUMNAR -> new ColumnarStudentStore();
+        };
+    }
 
     /**
-     * Adds a student to the registry.
+     * Creates a registry over rows that are already in 'store' (e.g. a mapped snapshot)
+     * and builds the indexes in one pass over the columns. No Student is created.
+     * Complexity: O(n).
+     *
+     * Throws IllegalArgumentException if the store contains a duplicate id.
+     */
+    StudentRegistry(StudentStore store) {
+        this.store = store;
+        idIndex.ensureCapacity(store.size());
+        indexRows(0, store.size());
+    }
+
+    /**
+     * Writes every student to a binary snapshot file (see StudentSnapshotFile for the
+     * format). The file is written to a temporary sibling, forced to disk and then
+     * renamed over 'file', so readers never see a half-written snapshot.
+     * Complexity: O(n) sequential writes.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        StudentSnapshotFile.write(store, Objects.requireNonNull(file, "file"));
+    }
+
+    /**
+     * Opens a snapshot written by writeSnapshot. The file is memory-mapped, not read:
+     * lookups read the fields they need straight from the mapping, and Student objects
+     * are created only when returned. Startup costs one pass to rebuild the indexes.
+     * The registry stays writable: new students are kept in memory (write a new
+     * snapshot to persist them).
+     *
+     * Throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static StudentRegistry openSnapshot(Path file) throws IOException {
+        MappedStudentStore store = StudentSnapshotFile.open(Objects.requireNonNull(file, "file"));
+        try {
+            return new StudentRegistry(store);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("corrupt snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds a student to the registry, indexes it by id and by major, and
+     * updates the running report aggregates.
      * Complexity: amortized O(1).
+     *
+     * Throws:
+     * - NullPointerException if s is null
+     * - IllegalArgumentException if a student with the same id is already registered,
+     *   or a journal is attached and the record is too large for it (registry unchanged)
+     * - UncheckedIOException if a journal is attached and logging fails
+     *   (the registry is left unchanged)
      */
-    public void add(Student s) { data.add(s); }
+    public void add(Student s) {
+        Objects.requireNonNull(s, "student");
+        if (journal != null && idIndex.get(s.getId()) == IntIntHashMap.NO_VALUE) log(s);
+        int row = store.size();
+        if (idIndex.putIfAbsent(s.getId(), row) != IntIntHashMap.NO_VALUE) {
+            throw new IllegalArgumentException("duplicate student id: " + s.getId());
+        }
+        store.append(s);
+        gpaOrder = null;
+        ageOrder = null;
+        if (rankIndex != null) rankIndex.insert(row);
+        gpaSum += s.getGpa();
+        majorBucket(s.getMajorRef()).add(row, s.getGpa(), s.getAge());
+        if (changes != null) changes.publish(s);
+    }
 
     /**
-     * Returns an unmodifiable snapshot (shallow copy) of all students.
-     * Callers cannot add/remove elements to this returned list.
-     * Complexity: O(n) to copy references.
+     * Adds many students at once: the same result as calling add for each of them in
+     * order, but much cheaper for large batches (e.g. cold-start imports):
+     * - ids are validated for the whole batch first (against the registry and within
+     *   the batch), so the call is ALL-OR-NOTHING: on error nothing is added;
+     * - storage and the id index are presized once instead of growing step by step;
+     * - the indexes are built in one pass over the new rows, resolving each distinct
+     *   major spelling to its bucket once, and the GPA ranking is invalidated once;
+     * - with a journal attached, the batch is logged with one write and one force.
+     * Complexity: O(m) for m students.
+     *
+     * Throws:
+     * - NullPointerException if the collection or any student is null
+     * - IllegalArgumentException if an id is already registered or repeats in the batch,
+     *   or a journal is attached and a record is too large for it
+     * - UncheckedIOException if a journal is attached and logging fails
      */
-    public List<Student> all() { return List.copyOf(data); }
+    public void addAll(Collection<? extends Student> students) {
+        List<Student> batch = new ArrayList<>(Objects.requireNonNull(students, "students"));
+        IntIntHashMap seen = new IntIntHashMap(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            int id = Objects.requireNonNull(batch.get(i), "student").getId();
+            if (idIndex.get(id) != IntIntHashMap.NO_VALUE || seen.putIfAbsent(id, i) != IntIntHashMap.NO_VALUE) {
+                throw new IllegalArgumentException("duplicate student id: " + id);
+            }
+        }
+        if (batch.isEmpty()) return;
+        if (journal != null) {
+            try {
+                journal.appendAll(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int from = store.size();
+        store.ensureCapacity(from + batch.size());
+        idIndex.ensureCapacity(from + batch.size());
+        for (Student s : batch) store.append(s);
+        indexRows(from, store.size());
+        if (changes != null && changes.hasSubscribers()) changes.publishAll(batch); // one event for the whole batch
+    }
+
+    /**
+     * Indexes rows [from, to) that are already in the store: id index, running GPA sum
+     * and major buckets, reading columns only (no Student is created).
+     *
+     * Throws IllegalArgumentException on a duplicate id (callers validate beforehand,
+     * except when opening a snapshot, where it means the file is corrupt).
+     */
+    private void indexRows(int from, int to) {
+        gpaOrder = null;
+        ageOrder = null;
+        for (int row = from; row < to; row++) {
+            int id = store.id(row);
+            if (idIndex.putIfAbsent(id, row) != IntIntHashMap.NO_VALUE) {
+                throw new IllegalArgumentException("duplicate student id: " + id);
+            }
+            double gpa = store.gpa(row);
+            int age = store.age(row);
+            gpaSum += gpa;
+            majorBucket(store.majorRef(row)).add(row, gpa, age);
+            if (rankIndex != null) rankIndex.insert(row);
+        }
+    }
+
+    /**
+     * The stream of students added from now on (a Flow.Publisher), for consumers that
+     * maintain derived views incrementally instead of re-reading all().
+     *
+     * - Subscribe, then read all() on the writer thread: the snapshot plus the events
+     *   cover every student exactly once.
+     * - Publishing never blocks add: each subscriber has a bounded buffer, and a
+     *   subscriber that falls a full buffer behind gets onError (see StudentChangeStream).
+     *   An addAll (or importCsv chunk) takes one buffer slot, however many students.
+     * - Closing the stream completes the subscribers; the registry keeps working.
+     *
+     * Costs nothing until first called; afterwards each add does O(subscribers) work.
+     */
+    public StudentChangeStream changes() {
+        if (changes == null) changes = new StudentChangeStream();
+        return changes;
+    }
+
+    /** Write-ahead: the record is in the journal (durable per its policy) before add applies it. */
+    private void log(Student s) {
+        try {
+            journal.append(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns (creating on first use) the index bucket for the given major. O(1): an array slot. */
+    private MajorBucket majorBucket(Major major) {
+        MajorBucket bucket = major == null ? noMajor : bucket(major.code());
+        if (bucket == null) {
+            String spelling = major == null ? null : major.name();
+            bucket = new MajorBucket(spelling, store);
+            if (major == null) {
+                noMajor = bucket;
+            } else {
+                if (major.code() >= byCode.length) {
+                    byCode = Arrays.copyOf(byCode, Math.max(major.code() + 1, 2 * byCode.length));
+                }
+                byCode[major.code()] = bucket;
+            }
+            buckets.add(bucket);
+            groups.put(spelling, bucket.students());
+        }
+        return bucket;
+    }
+
+    /** The bucket for a major code; null if no student has that major. */
+    private MajorBucket bucket(int code) {
+        return code >= 0 && code < byCode.length ? byCode[code] : null;
+    }
+
+    /** The bucket for a major given as text, in any case; null if unknown or null. */
+    private MajorBucket bucketOf(String major) {
+        return major == null ? null : bucket(Major.codeOf(major));
+    }
+
+    /**
+     * Case-normalized major: lower-cased with Locale.ROOT so the result does not
+     * depend on the JVM's default locale (e.g. the Turkish dotless i).
+     */
+    static String normalizeMajor(String major) {
+        return Major.normalize(major);
+    }
+
+    /**
+     * Loads a snapshot written by writeSnapshot fully into memory, with the given storage
+     * layout (openSnapshot instead keeps the rows in the mapped file). The records are
+     * decoded in parallel chunks on the common fork/join pool, then handed to addAll.
+     *
+     * Throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static StudentRegistry loadSnapshot(Path file, Storage storage) throws IOException {
+        MappedStudentStore mapped = StudentSnapshotFile.open(Objects.requireNonNull(file, "file"));
+        Student[] students = new Student[mapped.size()];
+        StudentRegistry registry = new StudentRegistry(storage);
+        try {
+            Arrays.parallelSetAll(students, mapped::get);
+            registry.addAll(Arrays.asList(students));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("corrupt snapshot " + file + ": " + e.getMessage(), e);
+        }
+        return registry;
+    }
+
+    /**
+     * Imports students from CSV (header + one student per record, see StudentCsvReader)
+     * and returns how many were added. The input is streamed: records are parsed into
+     * chunks of CSV_CHUNK students and each chunk goes through addAll, so memory stays
+     * bounded by the chunk, not the input.
+     *
+     * Throws:
+     * - IOException on read errors or malformed CSV
+     * - IllegalArgumentException on a duplicate id
+     * Either way, chunks before the failing one stay added (each chunk is all-or-nothing).
+     */
+    public int importCsv(Reader in) throws IOException {
+        StudentCsvReader reader = new StudentCsvReader(in);
+        List<Student> chunk = new ArrayList<>(CSV_CHUNK);
+        int added = 0;
+        for (Student s = reader.read(); s != null; s = reader.read()) {
+            chunk.add(s);
+            if (chunk.size() == CSV_CHUNK) {
+                addAll(chunk);
+                added += chunk.size();
+                chunk.clear();
+            }
+        }
+        addAll(chunk);
+        return added + chunk.size();
+    }
+
+    /**
+     * Exports every student as CSV (header first, registry order) and flushes 'out'
+     * (without closing it). Rows are read from the store one at a time, so exports of
+     * any size run in constant memory.
+     */
+    public void exportCsv(Writer out) throws IOException {
+        StudentCsvWriter writer = new StudentCsvWriter(out);
+        writer.writeHeader();
+        int n = store.size();
+        for (int row = 0; row < n; row++) writer.write(store.get(row));
+        writer.flush();
+    }
+
+    /**
+     * Crash recovery: loads the snapshot (if the file exists), replays the journal on
+     * top of it, and attaches the journal so every later add is logged before it is
+     * applied. Students the snapshot already contains are skipped during replay (a
+     * crash between a checkpoint's snapshot and its segment cleanup leaves both).
+     * Complexity: O(snapshot size + journal size).
+     *
+     * Throws IOException if the snapshot or a journal segment (other than a torn tail
+     * left by the crash) is unreadable.
+     */
+    public static StudentRegistry recover(Path snapshot, StudentJournal journal) throws IOException {
+        Objects.requireNonNull(journal, "journal");
+        StudentRegistry registry = snapshot != null && Files.exists(snapshot)
+                ? openSnapshot(snapshot) : new StudentRegistry();
+        journal.replay(s -> {
+            if (registry.idIndex.get(s.getId()) == IntIntHashMap.NO_VALUE) registry.add(s);
+        });
+        registry.journal = journal;
+        return registry;
+    }
+
+    /**
+     * Writes a snapshot and drops the journal segments it covers, so recovery time and
+     * journal size stay bounded. Order: roll the journal, write the snapshot (atomic
+     * rename), then delete the old segments — a crash at any point recovers correctly.
+     *
+     * Throws IllegalStateException if no journal is attached (see recover).
+     */
+    public void checkpoint(Path snapshot) throws IOException {
+        if (journal == null) throw new IllegalStateException("no journal attached");
+        long firstLive = journal.roll();
+        writeSnapshot(snapshot);
+        journal.deleteSegmentsBefore(firstLive);
+    }
+
+    /**
+     * Returns fork/join versions of the full-scan queries, running on the common pool.
+     * Small registries (≤ ParallelStudentQueries.SEQUENTIAL_THRESHOLD rows) are
+     * processed sequentially. Do not add while a parallel query is running.
+     */
+    public ParallelStudentQueries parallel() { return parallel(ForkJoinPool.commonPool()); }
+
+    /** Same as parallel(), on the given pool (e.g. to cap the number of cores used). */
+    public ParallelStudentQueries parallel(ForkJoinPool pool) { return new ParallelStudentQueries(store, pool); }
+
+    /**
+     * Returns an unmodifiable snapshot of all students.
+     * Callers cannot add/remove elements to this returned list, and students added
+     * later do not show up in it.
+     * Complexity: O(1) for every storage layout: a view over the rows present now (see
+     * snapshot()). COLUMNAR storage builds each Student when it is read.
+     */
+    public List<Student> all() { return store.snapshot(); }
+
+    /**
+     * Returns an immutable view pinned to the current version, in O(1) (no copy).
+     * Later adds do not change it, and unlike the registry it may be read from other
+     * threads while adds continue: take it on the thread that adds, hand it to a
+     * long-running job (report, export), and keep adding. See RegistrySnapshot.
+     */
+    public RegistrySnapshot snapshot() { return new RegistrySnapshot(store.pin()); }
 
     /**
      * Finds a student by id.
-     * Linear scan: O(n).
+     * Hash lookup in the primary-key index: O(1) expected.
+     * Allocates nothing except the returned Optional.
      *
      * Returns:
      * - Optional.of(student) if found
      * - Optional.empty() if not found
      */
     public Optional<Student> findById(int id) {
-        for (Student s : data) if (s.getId() == id) return Optional.of(s);
-        return Optional.empty();
+        int row = idIndex.get(id);
+        return row == IntIntHashMap.NO_VALUE ? Optional.empty() : Optional.of(store.get(row));
     }
 
     /**
      * Returns a list of students whose major equals the given major (case-insensitive).
-     * Complexity: O(n).
+     * Complexity: O(1) index lookup + O(k) to copy the k matches.
      *
      * Note:
-     * - Assumes s.getMajor() != null. If nulls are possible, guard with a null check:
-     *   if (s.getMajor() != null && s.getMajor().equalsIgnoreCase(major)) ...
-     * - Returns a new mutable list containing the matches.
+     * - Returns a new mutable list containing the matches (in registry order).
+     * - A null major matches nothing.
      */
     public List<Student> filterByMajor(String major) {
-        List<Student> out = new ArrayList<>();
-        for (Student s : data) if (s.getMajor().equalsIgnoreCase(major)) out.add(s);
-        return out;
+        MajorBucket bucket = bucketOf(major);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.students());
     }
 
     /**
      * Returns a new list sorted by GPA descending, then by name ascending.
      * Steps:
-     * - Make a defensive copy so the registry's ordering isn't mutated.
-     * - Sort with a Comparator: comparingDouble(...).reversed().thenComparing(...)
+     * - Get the cached GPA ranking (rows sorted by GPA desc, name, insertion order),
+     *   sorting the rows first if an add made it stale.
+     * - Copy the students out in that order; the registry's ordering isn't mutated.
      *
-     * Complexity: O(n log n).
+     * Complexity: O(n log n) after an add, O(n) while the ranking is cached.
      */
     public List<Student> sortByGpaDescThenName() {
-        List<Student> copy = new ArrayList<>(data);
-        copy.sort(Comparator.comparingDouble(Student::getGpa).reversed()
-                .thenComparing(Student::getName));
-        return copy;
+        int[] order = gpaOrder();
+        List<Student> out = new ArrayList<>(order.length);
+        for (int row : order) out.add(store.get(row));
+        return out;
+    }
+
+    /**
+     * The GPA ranking as rows; rebuilt lazily after adds. Do not modify the array.
+     * Once the rank index exists, rebuilding is an O(n) in-order walk instead of a sort.
+     */
+    private int[] gpaOrder() {
+        if (gpaOrder == null) {
+            gpaOrder = rankIndex != null ? rankIndex.toRanking() : RowSort.byGpaDescThenName(store);
+        }
+        return gpaOrder;
+    }
+
+    /** The rank index, built from the GPA ranking on first use (O(n) after the sort). */
+    private GpaRankIndex rankIndex() {
+        if (rankIndex == null) rankIndex = new GpaRankIndex(store, gpaOrder());
+        return rankIndex;
+    }
+
+    /**
+     * Position of the student in the GPA ranking (0 = best), i.e. its index in
+     * sortByGpaDescThenName() and the offset at which pageByGpa returns it.
+     * Complexity: O(log n) (the first rank query builds the index once).
+     *
+     * Throws IllegalArgumentException if no student has this id.
+     */
+    public int gpaRank(int id) {
+        int row = rowOf(id);
+        return rankIndex().rankOf(row);
+    }
+
+    /** Number of students with a GPA strictly above 'gpa'. O(log n). */
+    public int countGpaAbove(double gpa) { return rankIndex().countAbove(gpa); }
+
+    /** Number of students with a GPA of at least 'gpa'. O(log n). */
+    public int countGpaAtLeast(double gpa) { return rankIndex().countAtLeast(gpa); }
+
+    /**
+     * Percentile rank of the student's GPA, 0..100: the share of students with a lower
+     * GPA, counting students with the same GPA as half (the usual "percentile rank"
+     * definition, so ties get the same value). Complexity: O(log n).
+     *
+     * Throws IllegalArgumentException if no student has this id.
+     */
+    public double gpaPercentile(int id) {
+        double gpa = store.gpa(rowOf(id));
+        GpaRankIndex index = rankIndex();
+        int atLeast = index.countAtLeast(gpa);
+        int equal = atLeast - index.countAbove(gpa);
+        int below = index.size() - atLeast;
+        return 100.0 * (below + 0.5 * equal) / index.size();
+    }
+
+    /**
+     * The GPA at the given percentile (0..100), nearest-rank method: the smallest GPA
+     * such that at least 'percentile' percent of students have that GPA or lower.
+     * gpaAtPercentile(50) is the median, gpaAtPercentile(100) the highest GPA.
+     * Complexity: O(log n).
+     *
+     * Throws:
+     * - IllegalArgumentException if percentile is outside 0..100
+     * - IllegalStateException if the registry is empty
+     */
+    public double gpaAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("percentile must be in 0..100");
+        }
+        int n = store.size();
+        if (n == 0) throw new IllegalStateException("registry is empty");
+        int ascendingRank = Math.max(1, (int) Math.ceil(percentile / 100.0 * n)); // 1-based, lowest first
+        return store.gpa(rankIndex().select(n - ascendingRank));
+    }
+
+    /**
+     * Offset pagination in registry (insertion) order: students [offset, offset + limit).
+     * Complexity: O(limit). An offset past the end gives an empty list.
+     *
+     * Throws IllegalArgumentException if offset or limit is negative.
+     */
+    public List<Student> page(int offset, int limit) {
+        checkPage(offset, limit);
+        return rowsPage(null, offset, limit);
+    }
+
+    /**
+     * Keyset (cursor) pagination in registry order: up to 'limit' students added after
+     * the student with id 'afterId' (typically the last id of the previous page).
+     * Unlike offsets, the cursor stays correct however many students are added between
+     * page requests. Complexity: O(1) to resolve the cursor + O(limit).
+     *
+     * Throws IllegalArgumentException if limit is negative or afterId is unknown.
+     */
+    public List<Student> pageAfter(int afterId, int limit) {
+        checkPage(0, limit);
+        return rowsPage(null, rowOf(afterId) + 1, limit);
+    }
+
+    /**
+     * Offset pagination over the GPA ranking (same order as sortByGpaDescThenName).
+     * Complexity: O(limit) while the ranking is cached; the first call after an add
+     * re-sorts the rows once (O(n log n)).
+     *
+     * Throws IllegalArgumentException if offset or limit is negative.
+     */
+    public List<Student> pageByGpa(int offset, int limit) {
+        checkPage(offset, limit);
+        return rowsPage(gpaOrder(), offset, limit);
+    }
+
+    /**
+     * Keyset pagination over the GPA ranking: up to 'limit' students ranked after the
+     * student with id 'afterId'. The cursor is located by binary search on
+     * (GPA, name, insertion order): O(log n) + O(limit).
+     *
+     * Throws IllegalArgumentException if limit is negative or afterId is unknown.
+     */
+    public List<Student> pageByGpaAfter(int afterId, int limit) {
+        checkPage(0, limit);
+        int[] order = gpaOrder();
+        int pos = RowSort.binarySearch(store, order, rowOf(afterId));
+        return rowsPage(order, pos + 1, limit);
+    }
+
+    /** Students at positions [from, from + limit) of 'order' (or of row order if null). */
+    private List<Student> rowsPage(int[] order, int from, int limit) {
+        int n = store.size();
+        int to = (int) Math.min(n, (long) from + limit);
+        List<Student> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) out.add(store.get(order == null ? i : order[i]));
+        return out;
+    }
+
+    /** Row of the student with this id. Throws IllegalArgumentException if unknown. */
+    int rowOf(int id) {
+        int row = idIndex.get(id);
+        if (row == IntIntHashMap.NO_VALUE) throw new IllegalArgumentException("no student with id " + id);
+        return row;
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("offset must be >= 0");
+        if (limit < 0) throw new IllegalArgumentException("limit must be >= 0");
+    }
+
+    /**
+     * Students matching the query, in registry (insertion) order, as a new mutable list.
+     *
+     * Planning: every predicate that has an index yields a candidate row range, and the
+     * smallest one is scanned (each bound is found by binary search, so the sizes are
+     * exact, not estimates):
+     * - id equality → id index (0 or 1 row)
+     * - major       → the major's bucket
+     * - age range   → age index (rows sorted by age)
+     * - GPA range   → GPA ranking (the same cached index as sortByGpaDescThenName)
+     * - otherwise (e.g. only an id range) → full scan.
+     * Candidates are checked against the remaining predicates column by column; only
+     * matches become Student objects. Use explain(q) to see the chosen plan.
+     *
+     * Complexity: O(log n + c) for c candidates (+ O(r log r) to put r matches back
+     * into registry order when an age or GPA range was used). The first ranged query
+     * after an add sorts the rows for that index once (O(n log n)).
+     */
+    public List<Student> query(StudentQuery q) {
+        int[] rows = matchingRows(Objects.requireNonNull(q, "query"), plan(q));
+        List<Student> out = new ArrayList<>(rows.length);
+        for (int row : rows) out.add(store.get(row));
+        return out;
+    }
+
+    /** Number of students matching the query (same plan as query, no Student created). */
+    public int count(StudentQuery q) {
+        return matchingRows(Objects.requireNonNull(q, "query"), plan(q)).length;
+    }
+
+    /** Describes the plan query(q) would use, e.g. "age index: 312 of 10000 rows, then filter ...". */
+    public String explain(StudentQuery q) {
+        Plan p = plan(Objects.requireNonNull(q, "query"));
+        return p.access + ": " + (p.to - p.from) + " of " + store.size() + " rows, then filter " + q;
+    }
+
+    /** The cached age index; rebuilt lazily after adds. Do not modify the array. */
+    private int[] ageOrder() {
+        if (ageOrder == null) ageOrder = RowSort.byAge(store);
+        return ageOrder;
+    }
+
+    /**
+     * Candidate rows of a query: positions [from, to) of 'order', of 'bucketRows', or
+     * (both null) rows from..to-1 themselves.
+     */
+    private record Plan(String access, int[] order, IntList bucketRows, int from, int to) {
+        int row(int i) { return order != null ? order[i] : bucketRows != null ? bucketRows.get(i) : i; }
+
+        /** Index ranges come out sorted by the index key, not by row. */
+        boolean inRowOrder() { return order == null || to - from <= 1; }
+    }
+
+    private Plan plan(StudentQuery q) {
+        if (q.isEmpty()) return new Plan("contradiction", null, null, 0, 0);
+        if (q.idLo == q.idHi) {
+            int row = idIndex.get(q.idLo);
+            return row == IntIntHashMap.NO_VALUE
+                    ? new Plan("id index", null, null, 0, 0)
+                    : new Plan("id index", new int[] {row}, null, 0, 1);
+        }
+        Plan best = new Plan("full scan", null, null, 0, store.size());
+        if (q.majorKey != null) {
+            MajorBucket bucket = bucketOf(q.majorKey);
+            if (bucket == null) return new Plan("major index", null, null, 0, 0);
+            best = cheaper(best, new Plan("major index", null, bucket.rows(), 0, bucket.count()));
+        }
+        if (q.ageConstrained()) {
+            int[] order = ageOrder();
+            int from = RowSort.firstAgeAtLeast(store, order, q.ageLo);
+            int to = RowSort.firstAgeAtLeast(store, order, q.ageHi + 1L);
+            best = cheaper(best, new Plan("age index", order, null, from, Math.max(from, to)));
+        }
+        if (q.gpaBounded) {
+            int[] order = gpaOrder();
+            int from = RowSort.firstGpaBelow(store, order, q.gpaHi, false);
+            int to = RowSort.firstGpaBelow(store, order, q.gpaLo, true);
+            best = cheaper(best, new Plan("gpa index", order, null, from, Math.max(from, to)));
+        }
+        return best;
+    }
+
+    private static Plan cheaper(Plan a, Plan b) {
+        return b.to - b.from < a.to - a.from ? b : a;
+    }
+
+    /** Rows of the plan's candidates that satisfy every predicate, in row order. */
+    private int[] matchingRows(StudentQuery q, Plan plan) {
+        IntList hits = new IntList();
+        int majorCode = Major.codeOf(q.majorKey);
+        for (int i = plan.from; i < plan.to; i++) {
+            int row = plan.row(i);
+            int id = store.id(row);
+            if (id < q.idLo || id > q.idHi) continue;
+            int age = store.age(row);
+            if (age < q.ageLo || age > q.ageHi) continue;
+            if (!q.gpaInRange(store.gpa(row))) continue;
+            if (q.majorKey != null) {
+                Major major = store.majorRef(row);
+                if (major == null || major.code() != majorCode) continue;
+            }
+            hits.add(row);
+        }
+        int[] rows = hits.toArray();
+        if (!plan.inRowOrder()) Arrays.sort(rows);
+        return rows;
+    }
+
+    /**
+     * Returns the k best students by GPA descending, then name ascending — the same as
+     * the first k elements of sortByGpaDescThenName(), without sorting everything.
+     * Complexity: O(n log k) time, O(k) extra memory (a bounded heap of rows).
+     *
+     * Throws IllegalArgumentException if k < 0.
+     */
+    public List<Student> topByGpa(int k) {
+        RowTopK selector = new RowTopK(store, k);
+        selector.offerRange(0, store.size());
+        int[] best = selector.sortedRows();
+        List<Student> out = new ArrayList<>(best.length);
+        for (int row : best) out.add(store.get(row));
+        return out;
+    }
+
+    /**
+     * Returns the k best students of one major (case-insensitive), same ordering.
+     * Complexity: O(k log k) for k ≤ 3 (the heap report() maintains), otherwise
+     * O(m log k) over the m students of that major. Unknown or null major → empty list.
+     *
+     * Throws IllegalArgumentException if k < 0.
+     */
+    public List<Student> topByGpa(String major, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        MajorBucket bucket = bucketOf(major);
+        return bucket == null ? new ArrayList<>() : bucket.top(k);
     }
 
     /**
@@ -89,17 +795,17 @@ public class StudentRegistry {
      *
      * Choice of map:
      * - LinkedHashMap preserves insertion order of keys (majors) based on the
-     *   first time each major appears while iterating 'data'.
-     * - If you want keys alphabetically sorted, consider TreeMap instead.
+     *   first time each major was added to the registry.
+     * - If you want keys alphabetically sorted, copy into a TreeMap.
+     *
+     * The result is a read-only live view of the major index: nothing is rebuilt,
+     * and later adds show up in it. Copy it (new LinkedHashMap<>(...)) if you need
+     * a frozen or mutable grouping.
      *
-     * Complexity: O(n) to iterate and append to lists (amortized).
+     * Complexity: O(1).
      */
     public Map<String, List<Student>> groupByMajor() {
-        Map<String, List<Student>> map = new LinkedHashMap<>();
-        for (Student s : data) {
-            map.computeIfAbsent(s.getMajor(), k -> new ArrayList<>()).add(s);
-        }
-        return map;
+        return groupsView;
     }
 
     /**
@@ -109,53 +815,76 @@ public class StudentRegistry {
      * - per-major average GPA and top 3 students by GPA (desc), then name
      *
      * Output is meant for human reading (logs/console).
-     * For API or UI, expose structured data instead of a preformatted string.
+     * For API or UI, use summary() (structured data) instead of a preformatted string;
+     * for large outputs, stream with writeReport(Appendable) instead of building a String.
      *
      * Complexity:
-     * - O(n) to compute global average
-     * - O(n) to group
-     * - For each major, sorting to pick top-3 is O(m log m); total across majors ≤ O(n log n)
+     * - O(number of majors): every figure is read from aggregates that add maintains
+     *   (global GPA sum, per-major GPA sum and count, per-major top-3 heap).
      */
     public String report() {
         StringBuilder sb = new StringBuilder();
-        sb.append("=== Student Report ===\n");
-        sb.append("Total: ").append(data.size()).append("\n");
-
-        // Global average GPA
-        double avg = 0.0;
-        for (Student s : data) avg += s.getGpa();
-        if (!data.isEmpty()) avg /= data.size();
-        sb.append("Avg GPA (all): ").append(String.format("%.2f", avg)).append("\n\n");
-
-        // Group by major and compute per-major averages
-        Map<String, Double> avgByMajor = new LinkedHashMap<>();
-        Map<String, List<Student>> grouped = groupByMajor();
-        for (Map.Entry<String, List<Student>> e : grouped.entrySet()) {
-            double sum = 0.0;
-            for (Student s : e.getValue()) sum += s.getGpa();
-            avgByMajor.put(e.getKey(), sum / e.getValue().size());
-        }
-
-        // For each major: print avg GPA and the top-3 students by GPA desc, then name
-        for (String major : avgByMajor.keySet()) {
-            sb.append("[Major] ").append(major)
-                    .append(" | Avg GPA: ").append(String.format("%.2f", avgByMajor.get(major))).append("\n");
-
-            // Top 3 by GPA for that major
-            List<Student> top = grouped.get(major).stream()
-                    .sorted(Comparator.comparingDouble(Student::getGpa).reversed()
-                            .thenComparing(Student::getName))
-                    .limit(3)
-                    .collect(Collectors.toList());
-
-            for (int i = 0; i < top.size(); i++) {
-                sb.append("  #").append(i + 1).append(" ").append(top.get(i)).append("\n");
-            }
-            sb.append("\n");
+        try {
+            writeReport(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
         }
-
         return sb.toString();
     }
+
+    /**
+     * Streams the same text as report() to the given Appendable (Writer, StringBuilder, ...).
+     * Numbers are formatted by hand (see ReportWriter), so no String.format calls are made.
+     */
+    public void writeReport(Appendable out) throws IOException {
+        new ReportWriter(out).write(summary());
+    }
+
+    /**
+     * GPA and age distribution (p50/p90/p99 sketches, histograms) of all students.
+     * Merged from the per-major distributions that add maintains, so the cost depends
+     * on the number of majors, not on n. The result can be merged with other registries'.
+     */
+    public StudentDistribution distribution() {
+        StudentDistribution all = new StudentDistribution();
+        for (MajorBucket b : buckets) all.merge(b.distribution());
+        return all;
+    }
+
+    /**
+     * Distribution of one major (case-insensitive); empty for an unknown or null major.
+     * Same cost and semantics as distribution().
+     */
+    public StudentDistribution distribution(String major) {
+        MajorBucket bucket = bucketOf(major);
+        return bucket == null ? new StudentDistribution() : bucket.distribution().copy();
+    }
+
+    /** Distribution per major (first-seen spelling as key, first-seen order), as copies. */
+    public Map<String, StudentDistribution> distributionsByMajor() {
+        Map<String, StudentDistribution> out = new LinkedHashMap<>();
+        for (MajorBucket b : buckets) out.put(b.major, b.distribution().copy());
+        return out;
+    }
+
+    /** The major buckets in first-seen order (read-only use, e.g. by ShardedStudentRegistry). */
+    List<MajorBucket> majorBuckets() { return Collections.unmodifiableList(buckets); }
+
+    /**
+     * Returns the report as structured data: total, global average, and per major
+     * (first-seen order) the count, average GPA and top 3 by GPA desc, then name.
+     *
+     * Complexity: O(number of majors). The result is immutable and does not change
+     * when more students are added later.
+     */
+    public StudentReport summary() {
+        double avg = store.size() == 0 ? 0.0 : gpaSum / store.size();
+        List<StudentReport.MajorSummary> majors = new ArrayList<>(buckets.size());
+        for (MajorBucket b : buckets) {
+            majors.add(new StudentReport.MajorSummary(b.major, b.count(), b.averageGpa(), b.top()));
+        }
+        return new StudentReport(store.size(), avg, majors);
+    }
 }
 
 /*
@@ -167,18 +896,24 @@ Possible extensions (optional):
 2) Comparator injection:
    - Expose a sort method that accepts Comparator<Student> to allow custom sorting strategies.
 
-3) Pagination/limits for report:
-   - If the registry grows large, consider limiting items per major, or preselecting top-3 without full sort
-     using a bounded priority queue.
+3) Limits for report:
+   - If the registry grows large, consider limiting items per major.
+     (The top-3 per major is already preselected without a full sort, by a bounded heap in MajorBucket;
+     lists themselves can be read page by page with page/pageAfter/pageByGpa/pageByGpaAfter.)
 
 4) Data persistence:
-   - This is in-memory only. In a real app, back with a database or file store.
+   - writeSnapshot/openSnapshot persist the whole registry as one memory-mapped file.
+     Adds between snapshots survive a crash through StudentJournal (recover/checkpoint).
 
 5) Stream-based alternatives:
-   - filterByMajor: return data.stream().filter(...).toList();
-   - findById: data.stream().filter(...).findFirst();
+   - filterByMajor: return all().stream().filter(...).toList();
    These can be more concise but have similar complexity.
+   (For combined conditions prefer query(StudentQuery): it uses the indexes, all() does not.)
+   (findById used to be a linear scan too; it now goes through the id index.)
 
 6) Concurrency:
-   - If accessed by multiple threads, guard 'data' or use thread-safe collections or immutability.
+   - If accessed by multiple threads, guard the store and indexes, or use ConcurrentStudentRegistry
+     (lock-free appends, wait-free reads).
+   - ShardedStudentRegistry splits students by id over N registries with a lock each, so
+     adds to different shards don't contend; queries scatter to all shards and merge.
 */
@@ -0,0 +1,42 @@
+package com.son.oop.student;
+
+import java.util.List;
+
+/**
+ * StudentReport — the structured form of StudentRegistry.report().
+ *
+ * What it holds:
+ * - total: number of students in the registry
+ * - averageGpa: global average GPA (0.0 for an empty registry)
+ * - majors: one MajorSummary per major, in the order majors were first added
+ *
+ * Why a record?
+ * - It is pure data: immutable, with generated accessors/equals/hashCode/toString.
+ * - API or UI layers can read numbers directly instead of parsing a preformatted string.
+ *   Use ReportWriter to render it as text.
+ *
+ * Immutability:
+ * - The compact constructors copy the lists with List.copyOf, so a report never
+ *   changes after it was built, even if the registry keeps growing.
+ */
+public record StudentReport(int total, double averageGpa, List<MajorSummary> majors) {
+
+    public StudentReport {
+        majors = List.copyOf(majors);
+    }
+
+    /**
+     * Per-major figures.
+     *
+     * @param major      the major's display spelling (as first added)
+     * @param count      students in this major
+     * @param averageGpa average GPA of this major
+     * @param top        the best students by GPA desc, then name (at most 3)
+     */
+    public record MajorSummary(String major, int count, double averageGpa, List<Student> top) {
+
+        public MajorSummary {
+            top = List.copyOf(top);
+        }
+    }
+}
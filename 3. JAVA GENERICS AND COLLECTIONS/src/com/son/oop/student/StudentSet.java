@@ -0,0 +1,132 @@
+package com.son.oop.student;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * StudentSet — a set of students keyed by id (Student equality), for large membership
+ * and de-duplication checks.
+ *
+ * Why not HashSet<Student>?
+ * - A HashSet is a HashMap underneath: one Node object per member (~32–48 bytes) and a
+ *   hashCode() + equals() virtual call per probe. Here ids sit in a primitive int[]
+ *   next to the Student references (StudentIdTable), so add/contains/remove compare
+ *   ints and allocate nothing.
+ *
+ * Example — find duplicate ids in an export, without garbage:
+ *   StudentSet seen = new StudentSet(export.size());
+ *   for (Student s : export) if (!seen.add(s)) System.out.println("duplicate " + s.getId());
+ *
+ * Semantics follow Student.equals: two students with the same id are the same member.
+ * add keeps the first one (like HashSet.add). Iteration order is unspecified.
+ *
+ * Caveats:
+ * - Not thread-safe. Iterators fail fast if the set changes during iteration.
+ */
+public final class StudentSet implements Iterable<Student> {
+
+    private final StudentIdTable table;
+    private int modCount;
+
+    public StudentSet() { this(16); }
+
+    /** Presized for 'expectedSize' members. Throws IllegalArgumentException if negative. */
+    public StudentSet(int expectedSize) { table = new StudentIdTable(expectedSize, false); }
+
+    public int size() { return table.size(); }
+
+    public boolean isEmpty() { return table.size() == 0; }
+
+    /** Adds s unless a student with its id is present. Returns true if added. */
+    public boolean add(Student s) {
+        Objects.requireNonNull(s, "student");
+        if (table.insert(s) < 0) return false;
+        modCount++;
+        return true;
+    }
+
+    /** Adds every student; returns how many were new (the rest were duplicates by id). */
+    public int addAll(Collection<? extends Student> students) {
+        int added = 0;
+        for (Student s : students) if (add(s)) added++;
+        return added;
+    }
+
+    /** True if a student with s's id is present. */
+    public boolean contains(Student s) { return table.find(s.getId()) >= 0; }
+
+    public boolean containsId(int id) { return table.find(id) >= 0; }
+
+    /** The member with this id, or null. */
+    public Student get(int id) {
+        int slot = table.find(id);
+        return slot < 0 ? null : table.student(slot);
+    }
+
+    /** Removes the member with s's id. Returns true if there was one. */
+    public boolean remove(Student s) { return removeId(s.getId()); }
+
+    public boolean removeId(int id) {
+        int slot = table.find(id);
+        if (slot < 0) return false;
+        table.remove(slot);
+        modCount++;
+        return true;
+    }
+
+    public void clear() {
+        table.clear();
+        modCount++;
+    }
+
+    /** Calls action for every member, without creating an iterator. */
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        int expected = modCount;
+        for (int slot = 0, n = table.capacity(); slot < n; slot++) {
+            Student s = table.student(slot);
+            if (s != null) action.accept(s);
+        }
+        if (modCount != expected) throw new ConcurrentModificationException();
+    }
+
+    /** The members as a new list (unspecified order). */
+    public List<Student> toList() {
+        List<Student> out = new ArrayList<>(size());
+        forEach(out::add);
+        return out;
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<>() {
+            private final int expected = modCount;
+            private int slot = advance(0);
+
+            private int advance(int from) {
+                while (from < table.capacity() && table.student(from) == null) from++;
+                return from;
+            }
+
+            @Override public boolean hasNext() { return slot < table.capacity(); }
+
+            @Override
+            public Student next() {
+                if (modCount != expected) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                Student s = table.student(slot);
+                slot = advance(slot + 1);
+                return s;
+            }
+        };
+    }
+
+    @Override
+    public String toString() { return "StudentSet[size=" + size() + "]"; }
+}
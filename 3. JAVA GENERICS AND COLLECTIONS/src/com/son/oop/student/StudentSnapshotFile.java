@@ -0,0 +1,187 @@
+package com.son.oop.student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StudentSnapshotFile — the binary snapshot format of StudentRegistry.
+ *
+ * Layout (all numbers little-endian):
+ *
+ *   HEADER (32 bytes)
+ *     int  magic         'STUD' (0x53545544)
+ *     int  version       1
+ *     int  count         number of student records
+ *     int  stringCount   entries in the string table
+ *     long stringsOffset file offset of the string table
+ *     8 bytes padding
+ *   RECORDS (count × 24 bytes, starting at offset 32) — fixed width, so record i is at
+ *   32 + 24 * i and can be read without parsing anything before it
+ *     int id | int age | double gpa | int nameRef | int majorRef
+ *   STRING TABLE (at stringsOffset)
+ *     int[stringCount + 1] offsets into the blob (string j = blob[offsets[j], offsets[j+1]))
+ *     byte[] blob          UTF-8 bytes of all strings
+ *
+ * A "ref" is an index into the string table, or -1 for null. Names and majors are
+ * de-duplicated: a major used by a million students is stored once.
+ *
+ * Writing goes through a FileChannel into a temporary file, is forced to disk, then
+ * atomically renamed over the target, so a crash never leaves a half-written snapshot.
+ * Reading memory-maps the file (see MappedStudentStore): nothing is deserialized up front.
+ */
+final class StudentSnapshotFile {
+
+    static final int MAGIC = 0x53545544;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 24;
+
+    // Field offsets inside a record.
+    static final int ID = 0, AGE = 4, GPA = 8, NAME_REF = 16, MAJOR_REF = 20;
+
+    private StudentSnapshotFile() {}
+
+    /**
+     * Writes every row of the store to 'file' (replacing it atomically). If anything
+     * fails, the temporary file is deleted and 'file' is left as it was.
+     */
+    static void write(StudentStore store, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeFile(store, tmp);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /** Writes the snapshot into 'tmp' and forces it to disk. */
+    private static void writeFile(StudentStore store, Path tmp) throws IOException {
+        int count = store.size();
+        Map<String, Integer> refs = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Records, after a header placeholder (the header is written last).
+            ch.position(HEADER_BYTES);
+            for (int row = 0; row < count; row++) {
+                if (buf.remaining() < RECORD_BYTES) drain(ch, buf);
+                buf.putInt(store.id(row))
+                        .putInt(store.age(row))
+                        .putDouble(store.gpa(row))
+                        .putInt(ref(store.name(row), refs, strings))
+                        .putInt(ref(store.major(row), refs, strings));
+            }
+
+            // String table: offsets, then the UTF-8 blob.
+            long stringsOffset = HEADER_BYTES + (long) RECORD_BYTES * count;
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            long blobSize = 0;
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                blobSize += bytes.length;
+            }
+            if (blobSize > Integer.MAX_VALUE) throw new IOException("string table too large");
+            int offset = 0;
+            for (int j = 0; j <= encoded.size(); j++) {
+                if (buf.remaining() < 4) drain(ch, buf);
+                buf.putInt(offset);
+                if (j < encoded.size()) offset += encoded.get(j).length;
+            }
+            for (byte[] bytes : encoded) {
+                int pos = 0;
+                while (pos < bytes.length) {
+                    if (!buf.hasRemaining()) drain(ch, buf);
+                    int n = Math.min(buf.remaining(), bytes.length - pos);
+                    buf.put(bytes, pos, n);
+                    pos += n;
+                }
+            }
+            drain(ch, buf);
+
+            // Header.
+            buf.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(strings.size())
+                    .putLong(stringsOffset).putLong(0L);
+            buf.flip();
+            long at = 0;
+            while (buf.hasRemaining()) at += ch.write(buf, at);
+            ch.force(true);
+        }
+    }
+
+    /** Maps 'file' read-only and returns a store whose first rows live in the mapping. */
+    static MappedStudentStore open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = ch.size();
+            if (fileSize < HEADER_BYTES) throw new IOException("not a student snapshot: " + file);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header, header.position()) >= 0) { /* fill */ }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("not a student snapshot: " + file);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("unsupported snapshot version " + version);
+            int count = header.getInt();
+            int stringCount = header.getInt();
+            long stringsOffset = header.getLong();
+
+            long recordsBytes = (long) RECORD_BYTES * count;
+            if (count < 0 || stringCount < 0 || stringsOffset != HEADER_BYTES + recordsBytes
+                    || stringsOffset + 4L * (stringCount + 1) > fileSize) {
+                throw new IOException("corrupt snapshot header: " + file);
+            }
+            if (recordsBytes > Integer.MAX_VALUE || fileSize - stringsOffset > Integer.MAX_VALUE) {
+                throw new IOException("snapshot too large to map: " + file);
+            }
+            // Two mappings, so each region may be up to 2 GB. The mappings stay valid
+            // after the channel is closed.
+            MappedByteBuffer records = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, recordsBytes);
+            MappedByteBuffer strings = ch.map(FileChannel.MapMode.READ_ONLY, stringsOffset, fileSize - stringsOffset);
+            records.order(ByteOrder.LITTLE_ENDIAN);
+            strings.order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedStudentStore(records, count, strings, stringCount);
+        }
+    }
+
+    private static int ref(String s, Map<String, Integer> refs, List<String> strings) {
+        if (s == null) return -1;
+        Integer ref = refs.get(s);
+        if (ref == null) {
+            ref = strings.size();
+            strings.add(s);
+            refs.put(s, ref);
+        }
+        return ref;
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package com.son.oop.student;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * StudentStore — the storage backend behind StudentRegistry.
+ *
+ * Students are addressed by ROW: their position in insertion order (0, 1, 2, ...).
+ * Rows never move and are never removed, so every index in the registry can refer to
+ * students by row instead of holding object references.
+ *
+ * Implementations:
+ * - ObjectStudentStore: one Student object per row, in fixed-size chunks (the original layout).
+ * - ColumnarStudentStore: parallel primitive arrays; Student objects are created only
+ *   when get(row) is called.
+ *
+ * The per-field accessors (id, gpa, ...) let the registry scan a column without
+ * materializing Student objects.
+ *
+ * Versions: because rows only ever get appended, "the store as of now" is fully
+ * described by its current memory plus a row count. pin() captures exactly that, in
+ * O(1), without copying rows (see StudentRegistry.snapshot()).
+ */
+interface StudentStore {
+
+    /** Number of rows. */
+    int size();
+
+    /** Appends a student as the next row. */
+    void append(Student s);
+
+    /**
+     * Makes room for 'rows' rows in total, so a bulk load grows the storage once
+     * instead of doubling repeatedly. Only a hint: the default does nothing.
+     */
+    default void ensureCapacity(int rows) {}
+
+    /** Returns the student stored at the given row (may create a new object). */
+    Student get(int row);
+
+    int id(int row);
+
+    int age(int row);
+
+    double gpa(int row);
+
+    String name(int row);
+
+    String major(int row);
+
+    /** The interned Major of a row (null for no major); see Major. */
+    default Major majorRef(int row) { return Major.of(major(row)); }
+
+    /**
+     * A read-only store of the rows present now, sharing this store's memory: O(1), no
+     * row is copied. Appends to this store afterwards do not show up in it, and never
+     * write memory it reads, so it may be read by other threads while this store keeps
+     * appending (hand it over safely, e.g. through an executor or a volatile field).
+     * Its append throws UnsupportedOperationException.
+     *
+     * Nothing has to be released: the pinned store only references the arrays it needs,
+     * and once no one holds it the garbage collector reclaims whatever the live store
+     * has outgrown.
+     */
+    StudentStore pin();
+
+    /**
+     * Returns an unmodifiable snapshot of all rows, as StudentRegistry.all() promises:
+     * students added afterwards do not show up in it. O(1): a view over pin().
+     */
+    default List<Student> snapshot() {
+        StudentStore pinned = pin();
+        return pinned.prefixView(pinned.size());
+    }
+
+    /**
+     * A read-only view of rows [0, size): get(i) reads row i on demand.
+     * Because rows are append-only, rows below 'size' never change, so the view
+     * behaves like a snapshot without copying anything.
+     */
+    default List<Student> prefixView(int size) {
+        class PrefixView extends AbstractList<Student> implements RandomAccess {
+            @Override public Student get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+                return StudentStore.this.get(index);
+            }
+            @Override public int size() { return size; }
+        }
+        return new PrefixView();
+    }
+}
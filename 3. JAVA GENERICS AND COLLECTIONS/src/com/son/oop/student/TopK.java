@@ -0,0 +1,120 @@
+package com.son.oop.student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * TopK<T> — keeps the k "best" elements seen so far, according to a Comparator.
+ *
+ * "Best" means "comes first in the comparator's order". With the registry's
+ * GPA-desc-then-name comparator, the best students are the ones with the highest GPA.
+ *
+ * How it works:
+ * - A bounded binary heap of at most k elements whose ROOT is the WORST kept element.
+ * - offer(x): if the heap is not full, push x. Otherwise compare x with the root;
+ *   only if x is better does it replace the root (then sift down).
+ * - So every offer is O(log k) and the structure never holds more than k elements.
+ *   Picking the top k of n elements costs O(n log k) instead of an O(n log n) sort.
+ *
+ * Ties:
+ * - Every offered element gets an increasing sequence number. When the comparator
+ *   says two elements are equal, the one offered EARLIER wins. That is exactly what a
+ *   stable sort followed by limit(k) would return, so results match the old code.
+ *
+ * Caveats:
+ * - Not thread-safe.
+ */
+final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final Object[] items;
+    private final long[] seqs;
+    private int size;
+    private long nextSeq;
+
+    TopK(int k, Comparator<? super T> order) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        this.k = k;
+        this.order = order;
+        this.items = new Object[k];
+        this.seqs = new long[k];
+    }
+
+    /** Number of elements currently kept (≤ k). */
+    int size() { return size; }
+
+    /**
+     * Offers an element. Returns true if it was kept (it is among the best k so far).
+     * Complexity: O(log k).
+     */
+    boolean offer(T item) {
+        long seq = nextSeq++;
+        if (size < k) {
+            items[size] = item;
+            seqs[size] = seq;
+            siftUp(size++);
+            return true;
+        }
+        if (k == 0 || !worse(items[0], seqs[0], item, seq)) return false;
+        items[0] = item;
+        seqs[0] = seq;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Returns the kept elements, best first.
+     * Complexity: O(k log k); the structure itself is not modified.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toSortedList() {
+        Integer[] idx = new Integer[size];
+        for (int i = 0; i < size; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> {
+            int c = order.compare((T) items[a], (T) items[b]);
+            return c != 0 ? c : Long.compare(seqs[a], seqs[b]);
+        });
+        List<T> out = new ArrayList<>(size);
+        for (Integer i : idx) out.add((T) items[i]);
+        return out;
+    }
+
+    /** True if (a, seqA) ranks strictly after (b, seqB) — i.e. a is the worse one. */
+    @SuppressWarnings("unchecked")
+    private boolean worse(Object a, long seqA, Object b, long seqB) {
+        int c = order.compare((T) a, (T) b);
+        return c != 0 ? c > 0 : seqA > seqB;
+    }
+
+    // Heap invariant: the parent is worse than (or equal to) its children → root = worst.
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(items[i], seqs[i], items[parent], seqs[parent])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int right = left + 1;
+            int worst = left;
+            if (right < size && worse(items[right], seqs[right], items[left], seqs[left])) worst = right;
+            if (!worse(items[worst], seqs[worst], items[i], seqs[i])) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object t = items[a]; items[a] = items[b]; items[b] = t;
+        long s = seqs[a]; seqs[a] = seqs[b]; seqs[b] = s;
+    }
+}